@@ -0,0 +1,76 @@
+package app.bench;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.HibernateBatchingExample;
+import app.NativeJdbcBatchingExample;
+import app.batch.BatchSizeController;
+
+/**
+ * {@link BatchSizeController} against the fixed sizes of {@link BatchInsertBenchmark} and
+ * {@link NativeJdbcBatchBenchmark}. The controller is kept for the trial, so the measured iterations start from the
+ * size it converged to during warmup.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdaptiveBatchSizeBenchmark {
+
+	@Param({"40000"})
+	private int totalSize;
+
+	private DemoContext context;
+	private HibernateBatchingExample example;
+	private Connection connection;
+	private BatchSizeController statelessController;
+	private BatchSizeController nativeController;
+
+	@Setup(Level.Trial)
+	public void setUp(DemoContext context) throws SQLException {
+		this.context = context;
+		this.example = context.bean(HibernateBatchingExample.class);
+		this.connection = NativeJdbcBatchingExample.openConnection();
+		this.statelessController = BatchSizeController.withDefaults();
+		this.nativeController = BatchSizeController.withDefaults();
+	}
+
+	@Setup(Level.Iteration)
+	public void cleanUp() throws SQLException {
+		context.truncate("UUID_V6_ENTITY");
+		NativeJdbcBatchingExample.cleanUpTable(connection);
+	}
+
+	@TearDown(Level.Trial)
+	public void close() throws SQLException {
+		connection.close();
+	}
+
+	@Benchmark
+	public int statelessSession() {
+		return example.createEntitiesWithAdaptiveBatchSize(totalSize, statelessController);
+	}
+
+	@Benchmark
+	public void nativeJdbc() throws SQLException {
+		NativeJdbcBatchingExample.executeInAdaptiveBatches(connection, totalSize, nativeController);
+	}
+}
@@ -0,0 +1,62 @@
+package app.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.HibernateBatchingExample;
+
+/**
+ * JMH version of {@code BatchingTest.compare_total_size_and_batch_size}.
+ * Every invocation inserts {@code totalSize} rows, so single shot time is reported.
+ * Use {@code -p totalSize=400000} for the large dataset of the test.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchInsertBenchmark {
+
+	@Param({"400", "40000"})
+	private int totalSize;
+
+	@Param({"1", "25", "50", "100", "200", "400", "800"})
+	private int batchSize;
+
+	private DemoContext context;
+	private HibernateBatchingExample example;
+
+	@Setup(Level.Trial)
+	public void setUp(DemoContext context) {
+		this.context = context;
+		this.example = context.bean(HibernateBatchingExample.class);
+	}
+
+	@Setup(Level.Iteration)
+	public void cleanUp() {
+		context.truncate("UUID_V6_ENTITY");
+	}
+
+	@Benchmark
+	public void createEntitiesInBatchSize() {
+		example.createEntitiesInBatchSize(totalSize, batchSize);
+	}
+
+	@Benchmark
+	public void createEntitiesStreaming() {
+		example.createEntitiesStreaming(totalSize, batchSize);
+	}
+}
@@ -0,0 +1,46 @@
+package app.bench;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Same command line as the JMH main class, but always with the gc profiler and a JSON result file,
+ * so that allocation rates are part of every run and can be diffed between runs.
+ * <pre>
+ * java -jar bench/target/benchmarks.jar BatchInsertBenchmark -p batchSize=50,100
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+	private static final String RESULT_FILE = "jmh-result.json";
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		if (commandLine.shouldHelp()) {
+			commandLine.showHelp();
+			return;
+		}
+		if (commandLine.shouldList()) {
+			new Runner(commandLine).list();
+			return;
+		}
+		OptionsBuilder builder = new OptionsBuilder();
+		builder.parent(commandLine);
+		builder.addProfiler(GCProfiler.class);
+		if (commandLine.getResult().hasValue()) {
+			builder.resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON));
+		} else {
+			builder.resultFormat(ResultFormatType.JSON).result(RESULT_FILE);
+		}
+		Options options = builder.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,78 @@
+package app.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.HibernateBatchingExample;
+import app.entity.hibernate.identifier.IdentifiableEntity;
+import app.entity.hibernate.identifier.generated.SequenceTypeEntity;
+import app.entity.hibernate.identifier.generated.StripedSequenceTypeEntity;
+
+import static app.util.MessageGenerator.generateRandomString;
+
+/**
+ * Pooled sequence optimizer against the striped generator with 1 to 64 concurrent writers on message_seq.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentIdGenerationBenchmark {
+
+	public enum Generator {
+		POOLED(() -> new SequenceTypeEntity(generateRandomString())),
+		STRIPED(() -> new StripedSequenceTypeEntity(generateRandomString()));
+
+		private final Supplier<IdentifiableEntity> factory;
+
+		Generator(Supplier<IdentifiableEntity> factory) {
+			this.factory = factory;
+		}
+	}
+
+	@Param({"POOLED", "STRIPED"})
+	private Generator generator;
+
+	@Param({"1", "2", "4", "8", "16", "32", "64"})
+	private int writers;
+
+	@Param({"2000"})
+	private int totalPerWriter;
+
+	@Param({"50"})
+	private int batchSize;
+
+	private DemoContext context;
+	private HibernateBatchingExample example;
+
+	@Setup(Level.Trial)
+	public void setUp(DemoContext context) {
+		this.context = context;
+		this.example = context.bean(HibernateBatchingExample.class);
+	}
+
+	@Setup(Level.Iteration)
+	public void cleanUp() {
+		context.truncate("SEQUENCE_ENTITY");
+	}
+
+	@Benchmark
+	public void createEntitiesWithConcurrentWriters() {
+		example.createEntitiesWithConcurrentWriters(writers, totalPerWriter, batchSize, generator.factory);
+	}
+}
@@ -0,0 +1,76 @@
+package app.bench;
+
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import app.config.AppConfig;
+
+/**
+ * The demo Spring context, started once per fork and shared by every benchmark of that fork.
+ * It connects to the local Postgres started with {@code docker compose up}.
+ */
+@State(Scope.Benchmark)
+public class DemoContext {
+
+	private AnnotationConfigApplicationContext context;
+
+	@Setup(Level.Trial)
+	public void start() {
+		context = new AnnotationConfigApplicationContext(AppConfig.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		context.close();
+	}
+
+	public <T> T bean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+	/**
+	 * Empties the given tables so that every iteration starts from the same index size.
+	 */
+	public void truncate(String... tables) {
+		bean(SessionFactory.class).inStatelessTransaction(session -> {
+			for (String table : tables) {
+				session.createNativeMutationQuery("truncate table " + table).executeUpdate();
+			}
+		});
+	}
+
+	public long count(String table) {
+		return bean(SessionFactory.class).fromStatelessSession(session -> session
+				.createNativeQuery("select count(*) from " + table, long.class)
+				.getSingleResult());
+	}
+
+	/**
+	 * Size of the primary key index of the table per row, with the leaf density and fragmentation reported by
+	 * pgstatindex: Postgres does not count B-tree page splits, but an index filled at random pages ends up with half
+	 * full leaves after the splits, one filled from the right keeps them about 90% full.
+	 */
+	public String primaryKeyIndexStats(String table) {
+		return bean(SessionFactory.class).fromStatelessTransaction(session -> {
+			session.createNativeMutationQuery("create extension if not exists pgstattuple").executeUpdate();
+			Object[] stats = session.createNativeQuery("""
+					select c.relname, pg_relation_size(i.indexrelid), s.avg_leaf_density, s.leaf_fragmentation,
+					       (select count(*) from %s)
+					from pg_index i
+					join pg_class c on c.oid = i.indexrelid
+					cross join lateral pgstatindex(i.indexrelid::regclass) s
+					where i.indrelid = '%s'::regclass and i.indisprimary
+					""".formatted(table, table), Object[].class)
+					.getSingleResult();
+			long indexBytes = ((Number) stats[1]).longValue();
+			long rows = ((Number) stats[4]).longValue();
+			return String.format("%s: %d rows, %d index bytes (%.1f per row), leaf density %s%%, leaf fragmentation %s%%",
+					stats[0], rows, indexBytes, rows == 0 ? 0.0 : (double) indexBytes / rows, stats[2], stats[3]);
+		});
+	}
+}
@@ -0,0 +1,62 @@
+package app.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import app.BinaryCopyExample;
+import app.ReactiveStreamProcessingExamples;
+import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+
+/**
+ * Streams the whole {@code UUID_V6_ENTITY} table with different fetch sizes.
+ * A fetch size of 0 uses {@link ReactiveStreamProcessingExamples#generateSourceStreamWithoutFetchSize()},
+ * i.e. the driver reads the complete result set into the heap, which shows up in the gc profiler.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FetchSizeBenchmark {
+
+	@Param({"0", "10", "100", "1000"})
+	private int fetchSize;
+
+	@Param({"100000"})
+	private int rows;
+
+	private ReactiveStreamProcessingExamples examples;
+
+	@Setup(Level.Trial)
+	public void setUp(DemoContext context) {
+		examples = context.bean(ReactiveStreamProcessingExamples.class);
+		if (context.count("UUID_V6_ENTITY") != rows) {
+			context.truncate("UUID_V6_ENTITY");
+			context.bean(BinaryCopyExample.class).createEntitiesWithBinaryCopy(rows);
+		}
+	}
+
+	@Benchmark
+	public void streamAll(Blackhole blackhole) {
+		try (Stream<UuidV6Entity> stream = fetchSize == 0
+				? examples.generateSourceStreamWithoutFetchSize()
+				: examples.generateSourceStream(fetchSize)) {
+			stream.forEach(blackhole::consume);
+		}
+	}
+}
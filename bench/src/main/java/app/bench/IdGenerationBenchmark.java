@@ -0,0 +1,60 @@
+package app.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.HibernateBatchingExample;
+import jakarta.persistence.GenerationType;
+
+/**
+ * Inserts the entities of {@code MessageGenerator.generateEntityByType} with the same batch size,
+ * to show which generation types keep JDBC batching and which ones need a round trip per row.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGenerationBenchmark {
+
+	@Param({"IDENTITY", "SEQUENCE", "AUTO", "UUID"})
+	private GenerationType type;
+
+	@Param({"4000"})
+	private int totalSize;
+
+	@Param({"50"})
+	private int batchSize;
+
+	private DemoContext context;
+	private HibernateBatchingExample example;
+
+	@Setup(Level.Trial)
+	public void setUp(DemoContext context) {
+		this.context = context;
+		this.example = context.bean(HibernateBatchingExample.class);
+	}
+
+	@Setup(Level.Iteration)
+	public void cleanUp() {
+		context.truncate("IDENTITY_ENTITY", "SEQUENCE_ENTITY", "AUTO_ENTITY", "UUID_V4_ENTITY");
+	}
+
+	@Benchmark
+	public void createEntitiesInBatchByGenerationType() {
+		example.createEntitiesInBatchByGenerationType(totalSize, batchSize, type);
+	}
+}
@@ -0,0 +1,94 @@
+package app.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.HibernateBatchingExample;
+import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+import app.entity.hibernate.identifier.generated.IdentityTypeEntity;
+import app.entity.hibernate.identifier.generated.SequenceTypeEntity;
+import app.entity.hibernate.identifier.generated.SnowflakeTypeEntity;
+import app.entity.hibernate.identifier.generated.UUIDv4TypeEntity;
+import app.entity.hibernate.identifier.generated.UuidV7TypeEntity;
+
+import static app.util.MessageGenerator.generateRandomString;
+
+/**
+ * Insert time of every kind of id with concurrent writers, and the size of the primary key index they leave behind,
+ * printed after each iteration: random v4 UUIDs split pages all over the index, the time ordered ones only append.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdentifierTypeBenchmark {
+
+	public enum IdType {
+		UUID_V4("UUID_V4_ENTITY", () -> new UUIDv4TypeEntity(generateRandomString())),
+		UUID_V6("UUID_V6_ENTITY", () -> new UuidV6Entity(generateRandomString())),
+		UUID_V7("UUID_V7_ENTITY", () -> new UuidV7TypeEntity(generateRandomString())),
+		SNOWFLAKE("SNOWFLAKE_ENTITY", () -> new SnowflakeTypeEntity(generateRandomString())),
+		IDENTITY("IDENTITY_ENTITY", () -> new IdentityTypeEntity(generateRandomString())),
+		SEQUENCE("SEQUENCE_ENTITY", () -> new SequenceTypeEntity(generateRandomString()));
+
+		private final String table;
+		private final Supplier<Object> factory;
+
+		IdType(String table, Supplier<Object> factory) {
+			this.table = table;
+			this.factory = factory;
+		}
+	}
+
+	@Param({"UUID_V4", "UUID_V6", "UUID_V7", "SNOWFLAKE", "IDENTITY", "SEQUENCE"})
+	private IdType idType;
+
+	@Param({"1", "8"})
+	private int writers;
+
+	@Param({"50000"})
+	private int totalPerWriter;
+
+	@Param({"50"})
+	private int batchSize;
+
+	private DemoContext context;
+	private HibernateBatchingExample example;
+
+	@Setup(Level.Trial)
+	public void setUp(DemoContext context) {
+		this.context = context;
+		this.example = context.bean(HibernateBatchingExample.class);
+	}
+
+	@Setup(Level.Iteration)
+	public void cleanUp() {
+		context.truncate(idType.table);
+	}
+
+	@TearDown(Level.Iteration)
+	public void indexStats() {
+		System.out.println(context.primaryKeyIndexStats(idType.table));
+	}
+
+	@Benchmark
+	public void createEntitiesWithConcurrentWriters() {
+		example.createEntitiesWithConcurrentWriters(writers, totalPerWriter, batchSize, idType.factory);
+	}
+}
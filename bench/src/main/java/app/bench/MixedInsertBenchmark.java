@@ -0,0 +1,67 @@
+package app.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.HibernateBatchingExample;
+import app.batch.InsertReorderingBuffer;
+
+/**
+ * Alternating UuidV6Entity/IntIdEntity inserts, as is and through {@link InsertReorderingBuffer}, against the same
+ * number of rows of a single type. Every method inserts {@code 2 * totalSize} rows.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MixedInsertBenchmark {
+
+	@Param({"20000"})
+	private int totalSize;
+
+	@Param({"50", "200"})
+	private int batchSize;
+
+	private DemoContext context;
+	private HibernateBatchingExample example;
+
+	@Setup(Level.Trial)
+	public void setUp(DemoContext context) {
+		this.context = context;
+		this.example = context.bean(HibernateBatchingExample.class);
+	}
+
+	@Setup(Level.Invocation)
+	public void cleanUp() {
+		context.truncate("UUID_V6_ENTITY", "INT_ID_ENTITY");
+	}
+
+	@Benchmark
+	public void mixed() {
+		example.createMixedEntities(totalSize, batchSize);
+	}
+
+	@Benchmark
+	public void mixedReordered() {
+		example.createMixedEntitiesReordered(totalSize, batchSize);
+	}
+
+	@Benchmark
+	public void singleType() {
+		example.createEntitiesInBatchSize(2 * totalSize, batchSize);
+	}
+}
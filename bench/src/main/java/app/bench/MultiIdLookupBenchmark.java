@@ -0,0 +1,91 @@
+package app.bench;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import app.BinaryCopyExample;
+import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+import app.reactor.EntityMultiLoader;
+import reactor.core.publisher.Flux;
+
+/**
+ * {@code lookups} random ids of UUID_V6_ENTITY loaded with a get per id, with {@code in} lists of {@code chunkSize}
+ * ids and with the {@code = any(uuid[])} chunks of {@link EntityMultiLoader}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MultiIdLookupBenchmark {
+
+	@Param({"1000000"})
+	private int rows;
+
+	@Param({"10000"})
+	private int lookups;
+
+	@Param({"100", "1000"})
+	private int chunkSize;
+
+	private SessionFactory sessionFactory;
+	private List<UUID> ids;
+
+	@Setup(Level.Trial)
+	public void setUp(DemoContext context) {
+		sessionFactory = context.bean(SessionFactory.class);
+		if (context.count("UUID_V6_ENTITY") != rows) {
+			context.truncate("UUID_V6_ENTITY");
+			context.bean(BinaryCopyExample.class).createEntitiesWithBinaryCopy(rows);
+		}
+		ids = sessionFactory.fromStatelessSession(session -> session
+				.createNativeQuery("select id from UUID_V6_ENTITY order by random() limit :lookups", UUID.class)
+				.setParameter("lookups", lookups)
+				.getResultList());
+	}
+
+	@Benchmark
+	public void getPerId(Blackhole blackhole) {
+		sessionFactory.inStatelessTransaction(session -> ids.forEach(id -> blackhole.consume(session.get(UuidV6Entity.class, id))));
+	}
+
+	@Benchmark
+	public void inList(Blackhole blackhole) {
+		sessionFactory.inStatelessTransaction(session -> {
+			for (int from = 0; from < ids.size(); from += chunkSize) {
+				session.createSelectionQuery("from UuidV6Entity where id in :ids", UuidV6Entity.class)
+						.setParameterList("ids", ids.subList(from, Math.min(ids.size(), from + chunkSize)))
+						.getResultList()
+						.forEach(blackhole::consume);
+			}
+		});
+	}
+
+	@Benchmark
+	public void anyArray(Blackhole blackhole) {
+		new EntityMultiLoader(sessionFactory, chunkSize, 1).findAll(ids).forEach(blackhole::consume);
+	}
+
+	@Benchmark
+	public long anyArrayFlux(Blackhole blackhole) {
+		return ScanBenchmark.consume(Flux.fromIterable(ids).transform(new EntityMultiLoader(sessionFactory, chunkSize, 4).lookup()),
+				blackhole);
+	}
+}
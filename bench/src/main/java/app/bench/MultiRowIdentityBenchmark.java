@@ -0,0 +1,56 @@
+package app.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.HibernateBatchingExample;
+
+/**
+ * Multi-row INSERT ... RETURNING for IDENTITY_ENTITY, to compare with the IDENTITY and SEQUENCE rows of
+ * {@link IdGenerationBenchmark} for the same total size.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MultiRowIdentityBenchmark {
+
+	@Param({"1", "50", "100", "500"})
+	private int rowsPerStatement;
+
+	@Param({"4000"})
+	private int totalSize;
+
+	private DemoContext context;
+	private HibernateBatchingExample example;
+
+	@Setup(Level.Trial)
+	public void setUp(DemoContext context) {
+		this.context = context;
+		this.example = context.bean(HibernateBatchingExample.class);
+	}
+
+	@Setup(Level.Iteration)
+	public void cleanUp() {
+		context.truncate("IDENTITY_ENTITY");
+	}
+
+	@Benchmark
+	public Object createIdentityEntitiesWithMultiRowInsert() {
+		return example.createIdentityEntitiesWithMultiRowInsert(totalSize, rowsPerStatement);
+	}
+}
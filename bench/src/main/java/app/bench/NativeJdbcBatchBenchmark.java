@@ -0,0 +1,62 @@
+package app.bench;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.NativeJdbcBatchingExample;
+
+/**
+ * {@link NativeJdbcBatchingExample#executeInBatches(Connection, int, int)} with a plain driver connection,
+ * without Hibernate, connection pool or datasource proxy in between.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NativeJdbcBatchBenchmark {
+
+	@Param({"1", "10", "50", "100", "500"})
+	private int batchSize;
+
+	@Param({"10000"})
+	private int totalSize;
+
+	private Connection connection;
+
+	@Setup(Level.Trial)
+	public void open() throws SQLException {
+		connection = NativeJdbcBatchingExample.openConnection();
+	}
+
+	@Setup(Level.Iteration)
+	public void cleanUp() throws SQLException {
+		NativeJdbcBatchingExample.cleanUpTable(connection);
+	}
+
+	@TearDown(Level.Trial)
+	public void close() throws SQLException {
+		connection.close();
+	}
+
+	@Benchmark
+	public void executeInBatches() throws SQLException {
+		NativeJdbcBatchingExample.executeInBatches(connection, totalSize, batchSize);
+	}
+}
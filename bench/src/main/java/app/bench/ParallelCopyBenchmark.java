@@ -0,0 +1,64 @@
+package app.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.BinaryCopyExample;
+import app.copy.ParallelCopyLoader;
+
+/**
+ * {@link ParallelCopyLoader} with 1 to 8 shards, shards generating their own range and shards fed by one Flux.
+ * Throughput should grow with the shards up to the cores of the client or of the database, whichever is smaller.
+ * The StatelessSession baseline is {@link BatchInsertBenchmark}, run both with the same size:
+ * {@code java -jar benchmarks.jar "ParallelCopyBenchmark|BatchInsertBenchmark.createEntitiesInBatchSize" -p totalSize=400000 -p batchSize=800}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelCopyBenchmark {
+
+	@Param({"400000"})
+	private int totalSize;
+
+	@Param({"1", "2", "4", "8"})
+	private int shards;
+
+	private DemoContext context;
+	private BinaryCopyExample example;
+
+	@Setup(Level.Trial)
+	public void setUp(DemoContext context) {
+		this.context = context;
+		this.example = context.bean(BinaryCopyExample.class);
+	}
+
+	@Setup(Level.Iteration)
+	public void cleanUp() {
+		context.truncate("UUID_V6_ENTITY");
+	}
+
+	@Benchmark
+	public long copyRanges() {
+		return example.createEntitiesWithParallelCopy(totalSize, shards).rows();
+	}
+
+	@Benchmark
+	public long copyFlux() {
+		return example.createEntitiesWithParallelCopyFromFlux(totalSize, shards).rows();
+	}
+}
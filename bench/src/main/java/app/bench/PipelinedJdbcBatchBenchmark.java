@@ -0,0 +1,67 @@
+package app.bench;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.NativeJdbcBatchingExample;
+import app.batch.PipelinedBatchWriter;
+
+/**
+ * {@link PipelinedBatchWriter} with 1 (serial), 2 (double buffering) and more batches in flight. The serial loop
+ * of {@link NativeJdbcBatchBenchmark} is the baseline, run both with the same parameters:
+ * {@code java -jar benchmarks.jar "NativeJdbcBatchBenchmark|PipelinedJdbcBatchBenchmark" -p batchSize=50,500}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PipelinedJdbcBatchBenchmark {
+
+	@Param({"50", "500"})
+	private int batchSize;
+
+	@Param({"1", "2", "4"})
+	private int inFlight;
+
+	@Param({"10000"})
+	private int totalSize;
+
+	private Connection connection;
+
+	@Setup(Level.Trial)
+	public void open() throws SQLException {
+		connection = NativeJdbcBatchingExample.openConnection();
+	}
+
+	@Setup(Level.Iteration)
+	public void cleanUp() throws SQLException {
+		NativeJdbcBatchingExample.cleanUpTable(connection);
+	}
+
+	@TearDown(Level.Trial)
+	public void close() throws SQLException {
+		connection.close();
+	}
+
+	@Benchmark
+	public long executePipelined() throws SQLException {
+		return NativeJdbcBatchingExample.executePipelined(totalSize, batchSize, inFlight);
+	}
+}
@@ -0,0 +1,87 @@
+package app.bench;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.ReactiveStreamProcessingExamples;
+import app.SimpleStreamProcessingExamples;
+import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+import app.reactor.VirtualThreadSchedulers;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import static app.util.MessageGenerator.generateRandomString;
+
+/**
+ * The processing modes of the examples with blocking work per entity, on an in-memory source so that only the
+ * scheduling is measured (no database needed).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessingModesBenchmark {
+
+	@Param({"1000"})
+	private int entities;
+
+	@Param({"10"})
+	private int processingMillis;
+
+	@Param({"256"})
+	private int concurrency;
+
+	private List<UuidV6Entity> source;
+	private ReactiveStreamProcessingExamples reactive;
+	private SimpleStreamProcessingExamples simple;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		source = IntStream.range(0, entities).mapToObj(i -> new UuidV6Entity(generateRandomString())).toList();
+		Duration processingTime = Duration.ofMillis(processingMillis);
+		reactive = new ReactiveStreamProcessingExamples(null, processingTime);
+		simple = new SimpleStreamProcessingExamples(null, processingTime);
+	}
+
+	@Benchmark
+	public void parallelStream() {
+		simple.processInParallel(source.stream());
+	}
+
+	@Benchmark
+	public void virtualThreadsStream() {
+		simple.processWithVirtualThreads(source.stream(), concurrency);
+	}
+
+	@Benchmark
+	public void boundedElasticBatches() {
+		reactive.processInBatches(Flux.fromIterable(source)).block();
+	}
+
+	@Benchmark
+	public void boundedElasticPerEntity() {
+		reactive.processOnScheduler(Flux.fromIterable(source), Schedulers.boundedElastic(), concurrency).block();
+	}
+
+	@Benchmark
+	public void virtualThreadsPerEntity() {
+		reactive.processOnScheduler(Flux.fromIterable(source), VirtualThreadSchedulers.virtual(), concurrency).block();
+	}
+}
@@ -0,0 +1,75 @@
+package app.bench;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.BinaryCopyExample;
+import app.NativeJdbcBatchingExample;
+import app.batch.ChunkedPurger;
+
+/**
+ * Deletes half of the orders with one DELETE and with {@link ChunkedPurger}. The chunked purge is not expected to be
+ * faster on an idle database, what it buys is short transactions: compare the WAL written per second
+ * ({@code pg_stat_wal}) and the lock waits of concurrent sessions while it runs.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurgeBenchmark {
+
+	private static final String EVEN_IDS = "id % 2 = 0";
+
+	@Param({"400000"})
+	private int totalSize;
+
+	@Param({"1000", "10000"})
+	private int chunkSize;
+
+	private DemoContext context;
+	private Connection connection;
+
+	@Setup(Level.Trial)
+	public void setUp(DemoContext context) throws SQLException {
+		this.context = context;
+		this.connection = NativeJdbcBatchingExample.openConnection();
+	}
+
+	@Setup(Level.Iteration)
+	public void fill() {
+		context.truncate("orders");
+		context.bean(BinaryCopyExample.class).createOrdersWithBinaryCopy(totalSize);
+	}
+
+	@TearDown(Level.Trial)
+	public void close() throws SQLException {
+		connection.close();
+	}
+
+	@Benchmark
+	public int singleDelete() throws SQLException {
+		return NativeJdbcBatchingExample.deleteOrders(connection, EVEN_IDS);
+	}
+
+	@Benchmark
+	public long chunkedPurge() throws SQLException {
+		return NativeJdbcBatchingExample.purgeOrders(connection, EVEN_IDS, chunkSize);
+	}
+}
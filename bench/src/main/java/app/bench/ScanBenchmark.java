@@ -0,0 +1,89 @@
+package app.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import app.BinaryCopyExample;
+import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+import app.reactor.DemandDrivenEntityProducer;
+import app.reactor.EntityProducer;
+import app.reactor.EntityProducerWithFetchSize;
+import app.reactor.EntityProducerWithKeyset;
+import app.reactor.PartitionedEntityProducer;
+import reactor.core.publisher.Flux;
+
+/**
+ * Full scans of UUID_V6_ENTITY through the different producers, on a table of {@code rows} rows.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScanBenchmark {
+
+	@Param({"2000000"})
+	private int rows;
+
+	@Param({"1000"})
+	private int pageSize;
+
+	@Param({"4"})
+	private int partitions;
+
+	private SessionFactory sessionFactory;
+
+	@Setup(Level.Trial)
+	public void setUp(DemoContext context) {
+		sessionFactory = context.bean(SessionFactory.class);
+		if (context.count("UUID_V6_ENTITY") != rows) {
+			context.truncate("UUID_V6_ENTITY");
+			context.bean(BinaryCopyExample.class).createEntitiesWithBinaryCopy(rows);
+		}
+	}
+
+	@Benchmark
+	public long cursor(Blackhole blackhole) {
+		return consume(new EntityProducer(sessionFactory).publish(), blackhole);
+	}
+
+	@Benchmark
+	public long keyset(Blackhole blackhole) {
+		return consume(new EntityProducerWithKeyset(sessionFactory, pageSize).publish(), blackhole);
+	}
+
+	@Benchmark
+	public long partitioned(Blackhole blackhole) {
+		return consume(new PartitionedEntityProducer(sessionFactory, partitions, pageSize).publish(), blackhole);
+	}
+
+	@Benchmark
+	public long adaptiveFetchSize(Blackhole blackhole) {
+		return consume(new EntityProducerWithFetchSize(sessionFactory).publish(), blackhole);
+	}
+
+	@Benchmark
+	public long demandDriven(Blackhole blackhole) {
+		return consume(new DemandDrivenEntityProducer(sessionFactory, pageSize).publish(), blackhole);
+	}
+
+	static long consume(Flux<UuidV6Entity> flux, Blackhole blackhole) {
+		Long count = flux.doOnNext(blackhole::consume).count().block();
+		return count == null ? 0 : count;
+	}
+}
@@ -0,0 +1,69 @@
+package app.bench;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.CacheMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.SecondLevelCacheExample;
+import app.cache.ChronicleRegionFactory;
+
+/**
+ * Lookups by id served by the off-heap {@link ChronicleRegionFactory} cache against the same lookups in the database.
+ * The warmup iterations fill the cache. The gc profiler of {@link BenchmarkRunner} shows the allocation rate of both,
+ * a hit allocates the deserialized entry and the entity but the cached entries are not on the heap.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {
+		"-Dapp.hibernate.cache=true",
+		// the Chronicle JVM arguments of the demo pom
+		"--add-exports=java.base/jdk.internal.ref=ALL-UNNAMED",
+		"--add-exports=java.base/sun.nio.ch=ALL-UNNAMED",
+		"--add-exports=jdk.unsupported/sun.misc=ALL-UNNAMED",
+		"--add-exports=jdk.compiler/com.sun.tools.javac.file=ALL-UNNAMED",
+		"--add-opens=jdk.compiler/com.sun.tools.javac=ALL-UNNAMED",
+		"--add-opens=java.base/java.lang=ALL-UNNAMED",
+		"--add-opens=java.base/java.lang.reflect=ALL-UNNAMED",
+		"--add-opens=java.base/java.io=ALL-UNNAMED",
+		"--add-opens=java.base/java.util=ALL-UNNAMED"})
+@State(Scope.Benchmark)
+public class SecondLevelCacheBenchmark {
+
+	@Param({"10000"})
+	private int totalSize;
+
+	private SecondLevelCacheExample example;
+	private List<UUID> ids;
+
+	@Setup(Level.Trial)
+	public void setUp(DemoContext context) {
+		this.example = context.bean(SecondLevelCacheExample.class);
+		this.ids = example.createEntities(totalSize);
+	}
+
+	@Benchmark
+	public long cached() {
+		return example.findAll(ids, CacheMode.NORMAL);
+	}
+
+	@Benchmark
+	public long database() {
+		return example.findAll(ids, CacheMode.IGNORE);
+	}
+}
@@ -0,0 +1,77 @@
+package app.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.HibernateBatchingExample;
+import app.metrics.SampledStatistics;
+
+/**
+ * Cost of {@link SampledStatistics} on small transactions, which call it the most per row: off, global counters
+ * only, and with the per-entity and per-query detail.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatisticsOverheadBenchmark {
+
+	public enum Statistics {
+		OFF, COUNTERS, DETAIL
+	}
+
+	@Param({"OFF", "COUNTERS", "DETAIL"})
+	private Statistics statistics;
+
+	@Param({"40000"})
+	private int totalSize;
+
+	@Param({"10"})
+	private int batchSize;
+
+	private DemoContext context;
+	private HibernateBatchingExample example;
+	private SampledStatistics sampledStatistics;
+
+	@Setup(Level.Trial)
+	public void setUp(DemoContext context) {
+		this.context = context;
+		this.example = context.bean(HibernateBatchingExample.class);
+		this.sampledStatistics = SampledStatistics.of(context.bean(SessionFactory.class));
+		sampledStatistics.setStatisticsEnabled(statistics != Statistics.OFF);
+		sampledStatistics.setEntityDetailEnabled(statistics == Statistics.DETAIL);
+		sampledStatistics.setQueryDetailEnabled(statistics == Statistics.DETAIL);
+	}
+
+	@Setup(Level.Iteration)
+	public void cleanUp() {
+		context.truncate("UUID_V6_ENTITY");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		sampledStatistics.setStatisticsEnabled(false);
+		sampledStatistics.clear();
+	}
+
+	@Benchmark
+	public void createEntitiesWithBatchedTransaction() {
+		example.createEntitiesWithBatchedTransaction(totalSize, batchSize);
+	}
+}
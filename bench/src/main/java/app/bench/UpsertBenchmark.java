@@ -0,0 +1,73 @@
+package app.bench;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.BinaryCopyExample;
+import app.HibernateBatchingExample;
+import app.copy.BulkUpserter;
+
+/**
+ * {@link BulkUpserter} against batched {@code StatelessSession.upsert}. Every iteration starts with the first half of
+ * the orders in the table, so that an upsert inserts half of its rows and updates the other half.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UpsertBenchmark {
+
+	private static final BigDecimal EXISTING_AMOUNT = new BigDecimal("100.00");
+	private static final BigDecimal NEW_AMOUNT = new BigDecimal("200.00");
+
+	@Param({"40000"})
+	private int totalSize;
+
+	@Param({"100", "1000"})
+	private int batchSize;
+
+	private DemoContext context;
+	private BinaryCopyExample copyExample;
+	private HibernateBatchingExample hibernateExample;
+
+	@Setup(Level.Trial)
+	public void setUp(DemoContext context) {
+		this.context = context;
+		this.copyExample = context.bean(BinaryCopyExample.class);
+		this.hibernateExample = context.bean(HibernateBatchingExample.class);
+	}
+
+	@Setup(Level.Iteration)
+	public void cleanUp() {
+		context.truncate("orders");
+		copyExample.upsertOrders(1, totalSize / 2, EXISTING_AMOUNT);
+	}
+
+	/**
+	 * Does not use the batch size, its runs for both batch sizes measure the same thing.
+	 */
+	@Benchmark
+	public long stagedUpsert() {
+		return copyExample.upsertOrders(1, totalSize, NEW_AMOUNT).staged();
+	}
+
+	@Benchmark
+	public void statelessSessionUpsert() {
+		hibernateExample.upsertOrders(1, totalSize, NEW_AMOUNT, batchSize);
+	}
+}
@@ -0,0 +1,119 @@
+package app;
+
+import java.math.BigDecimal;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.hibernate.SessionFactory;
+
+import app.copy.BinaryCopyBulkLoader;
+import app.copy.BulkUpserter;
+import app.copy.BulkUpserter.UpsertResult;
+import app.copy.ParallelCopyLoader;
+import app.copy.ParallelCopyLoader.LoadResult;
+import app.entity.Orders;
+import app.entity.hibernate.identifier.assigned.IntIdEntity;
+import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import static app.util.MessageGenerator.generateFlux;
+import static app.util.MessageGenerator.generateRandomString;
+import static app.util.MessageGenerator.generateStream;
+
+/**
+ * Same data as {@link HibernateBatchingExample#createEntitiesInBatchSize(int, int)}, but written with binary COPY.
+ * Entities are generated lazily while the COPY stream is being written.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class BinaryCopyExample {
+
+	private final SessionFactory sessionFactory;
+	private final BinaryCopyBulkLoader loader;
+	private final ParallelCopyLoader parallelLoader;
+	private final BulkUpserter upserter;
+
+	public long createEntitiesWithBinaryCopy(int total) {
+		return loader.copy(UuidV6Entity.class, IntStream.range(0, total)
+				.mapToObj(integer -> new UuidV6Entity(generateRandomString())));
+	}
+
+	public long createIntIdEntitiesWithBinaryCopy(int total) {
+		int firstId = nextId("INT_ID_ENTITY");
+		return loader.copy(IntIdEntity.class, IntStream.range(firstId, firstId + total)
+				.mapToObj(id -> new IntIdEntity(id, generateRandomString())));
+	}
+
+	public long createOrdersWithBinaryCopy(int total) {
+		int firstId = nextId("orders");
+		BigDecimal amount = new BigDecimal("100.00");
+		return loader.copy(Orders.class, IntStream.range(firstId, firstId + total)
+				.mapToObj(id -> {
+					Orders order = new Orders();
+					order.setId(id);
+					order.setAmount(amount);
+					return order;
+				}));
+	}
+
+	/**
+	 * {@link #createEntitiesWithBinaryCopy(int)} with {@code shards} concurrent COPY sessions, every shard generates
+	 * its own range of entities on its own thread.
+	 */
+	public LoadResult createEntitiesWithParallelCopy(long total, int shards) {
+		return parallelLoader.copyRanges(UuidV6Entity.class, total, shards,
+				(from, to) -> generateStream(to - from, (index, text) -> new UuidV6Entity(text)));
+	}
+
+	/**
+	 * The same entities from a single Flux, dealt to the shards.
+	 */
+	public LoadResult createEntitiesWithParallelCopyFromFlux(long total, int shards) {
+		return parallelLoader.copy(UuidV6Entity.class, generateFlux(total, (index, text) -> new UuidV6Entity(text)), shards);
+	}
+
+	/**
+	 * Orders have assigned ids, so the range of a shard is a range of ids: a shard copied again by
+	 * {@link ParallelCopyLoader#resume} writes exactly the rows it would have written the first time.
+	 */
+	public LoadResult createOrdersWithParallelCopy(int total, int shards) {
+		return parallelLoader.copyRanges(Orders.class, total, shards, ordersFrom(nextId("orders")));
+	}
+
+	public ParallelCopyLoader.RangeSource<Orders> ordersFrom(long firstId) {
+		BigDecimal amount = new BigDecimal("100.00");
+		return (from, to) -> LongStream.range(firstId + from, firstId + to)
+				.mapToObj(id -> {
+					Orders order = new Orders();
+					order.setId((int) id);
+					order.setAmount(amount);
+					return order;
+				});
+	}
+
+	/**
+	 * Writes the orders {@code firstId} to {@code firstId + total - 1} with the given amount, whether they exist or not.
+	 */
+	public UpsertResult upsertOrders(int firstId, int total, BigDecimal amount) {
+		return upserter.upsert(Orders.class, IntStream.range(firstId, firstId + total)
+				.mapToObj(id -> {
+					Orders order = new Orders();
+					order.setId(id);
+					order.setAmount(amount);
+					return order;
+				}));
+	}
+
+	public UpsertResult upsertIntIdEntities(int firstId, int total) {
+		return upserter.upsert(IntIdEntity.class, IntStream.range(firstId, firstId + total)
+				.mapToObj(id -> new IntIdEntity(id, generateRandomString())));
+	}
+
+	// Assigned ids, so we continue after whatever a previous run left in the table
+	private int nextId(String table) {
+		return sessionFactory.fromStatelessSession(session -> session
+				.createNativeQuery("select coalesce(max(id), 0) + 1 from " + table, int.class)
+				.getSingleResult());
+	}
+}
@@ -1,6 +1,13 @@
 package app;
 
+import app.batch.BatchSizeController;
+import app.batch.InsertReorderingBuffer;
+import app.batch.MultiRowIdentityInserter;
+import app.batch.ReactiveBatchWriter;
+import app.batch.ReactiveBatchWriter.WriteSummary;
+import app.entity.Orders;
 import app.entity.hibernate.identifier.IdentifiableEntity;
+import app.entity.hibernate.identifier.generated.IdentityTypeEntity;
 import app.entity.hibernate.identifier.assigned.IntIdEntity;
 import app.entity.hibernate.identifier.assigned.UuidV6Entity;
 import jakarta.persistence.GenerationType;
@@ -9,12 +16,21 @@ import lombok.extern.slf4j.Slf4j;
 import org.hibernate.SessionFactory;
 import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
+import reactor.core.publisher.Flux;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static app.util.MessageGenerator.generateMessagesList;
 import static app.util.MessageGenerator.generateRandomString;
+import static app.util.MessageGenerator.generateStream;
+import static app.util.ThroughputUtil.logThroughput;
 
 /**
  * begin;
@@ -36,12 +52,47 @@ public class HibernateBatchingExample {
 	public void createEntitiesInBatchSize(int total, int batchSize) {
 		List<UuidV6Entity> uuidV6EntityList = IntStream.range(1, total + 1)
 				.mapToObj(integer -> new UuidV6Entity(generateRandomString())).toList();
+		long start = System.nanoTime();
 		try (StatelessSession statelessSession = sessionFactory.openStatelessSession()) {
 			statelessSession.setJdbcBatchSize(batchSize);
 			Transaction transaction = statelessSession.beginTransaction();
 			uuidV6EntityList.forEach(statelessSession::insert);
 			transaction.commit();
 		}
+		logThroughput("StatelessSession insert, batch size " + batchSize, total, start);
+	}
+
+	/**
+	 * Same as {@link #createEntitiesInBatchSize(int, int)} in constant memory: the entities are generated while they
+	 * are inserted and the StatelessSession keeps no reference to them, only the current JDBC batch is on the heap.
+	 */
+	public void createEntitiesStreaming(long total, int batchSize) {
+		long start = System.nanoTime();
+		sessionFactory.inStatelessTransaction(statelessSession -> {
+			statelessSession.setJdbcBatchSize(batchSize);
+			try (Stream<UuidV6Entity> entities = generateStream(total, (index, text) -> new UuidV6Entity(text))) {
+				entities.forEach(statelessSession::insert);
+			}
+		});
+		logThroughput("StatelessSession streaming insert, batch size " + batchSize, total, start);
+	}
+
+	/**
+	 * Row by row baseline of {@link app.copy.BulkUpserter}: Hibernate upserts every order with its own MERGE or
+	 * INSERT ... ON CONFLICT, grouped in JDBC batches.
+	 */
+	public void upsertOrders(int firstId, int total, BigDecimal amount, int batchSize) {
+		long start = System.nanoTime();
+		sessionFactory.inStatelessTransaction(statelessSession -> {
+			statelessSession.setJdbcBatchSize(batchSize);
+			for (int id = firstId; id < firstId + total; id++) {
+				Orders order = new Orders();
+				order.setId(id);
+				order.setAmount(amount);
+				statelessSession.upsert(order);
+			}
+		});
+		logThroughput("StatelessSession upsert, batch size " + batchSize, total, start);
 	}
 
 	public void createEntitiesWithBatchedTransaction(int total, int batchSize) {
@@ -78,10 +129,52 @@ public class HibernateBatchingExample {
 		});
 	}
 
+	/**
+	 * IDENTITY disables JDBC batching in Hibernate, here the rows are grouped in multi-row INSERT ... RETURNING id
+	 * statements instead, and the generated ids are set on the entities.
+	 */
+	public List<IdentityTypeEntity> createIdentityEntitiesWithMultiRowInsert(int total, int rowsPerStatement) {
+		List<IdentityTypeEntity> toInsert = IntStream.range(0, total)
+				.mapToObj(integer -> new IdentityTypeEntity(generateRandomString())).toList();
+		MultiRowIdentityInserter<IdentityTypeEntity> inserter =
+				MultiRowIdentityInserter.of(sessionFactory, IdentityTypeEntity.class, rowsPerStatement);
+		long start = System.nanoTime();
+		sessionFactory.inStatelessTransaction(statelessSession -> inserter.insert(statelessSession, toInsert));
+		logThroughput("Multi-row IDENTITY insert, " + rowsPerStatement + " rows per statement", total, start);
+		return toInsert;
+	}
+
+	/**
+	 * Writes the entities with up to maxInFlight concurrent batch transactions, poison rows are isolated and returned.
+	 */
+	public WriteSummary<UuidV6Entity> writeWithReactiveSink(Flux<UuidV6Entity> entities, int batchSize, int maxInFlight) {
+		long start = System.nanoTime();
+		WriteSummary<UuidV6Entity> summary = entities
+				.as(new ReactiveBatchWriter<>(sessionFactory, batchSize, maxInFlight))
+				.block();
+		logThroughput("Reactive sink, batch size " + batchSize + ", " + maxInFlight + " in flight", summary.written(), start);
+		return summary;
+	}
+
+	/**
+	 * No batch size to choose: the controller converges while the rows are inserted.
+	 *
+	 * @return the batch size the controller ended with
+	 */
+	public int createEntitiesWithAdaptiveBatchSize(int total, BatchSizeController controller) {
+		List<UuidV6Entity> uuidV6EntityList = IntStream.range(0, total)
+				.mapToObj(integer -> new UuidV6Entity(generateRandomString())).toList();
+		long start = System.nanoTime();
+		sessionFactory.inStatelessTransaction(statelessSession -> controller.insert(statelessSession, uuidV6EntityList));
+		logThroughput("StatelessSession insert, adaptive batch size (ended at " + controller.currentBatchSize() + ")", total, start);
+		return controller.currentBatchSize();
+	}
+
 	public void createMixedEntities(int total, int batchSize) {
 		List<UuidV6Entity> uuidV6EntityList = IntStream.range(1, total + 1)
 				.mapToObj(integer -> new UuidV6Entity(generateRandomString())).toList();
-		List<IntIdEntity> intIdEntityList = IntStream.range(1, total + 1)
+		int firstId = nextIntId();
+		List<IntIdEntity> intIdEntityList = IntStream.range(firstId, firstId + total)
 				.mapToObj(integer -> new IntIdEntity(integer, generateRandomString())).toList();
 		// Hibernate 6.3 new API :)
 		sessionFactory.inStatelessTransaction(statelessSession -> {
@@ -93,5 +186,51 @@ public class HibernateBatchingExample {
 
 		});
 	}
-}
 
+	/**
+	 * Same inserts as {@link #createMixedEntities(int, int)}, queued per type so that both stay batched.
+	 */
+	public void createMixedEntitiesReordered(int total, int batchSize) {
+		List<UuidV6Entity> uuidV6EntityList = IntStream.range(1, total + 1)
+				.mapToObj(integer -> new UuidV6Entity(generateRandomString())).toList();
+		int firstId = nextIntId();
+		List<IntIdEntity> intIdEntityList = IntStream.range(firstId, firstId + total)
+				.mapToObj(integer -> new IntIdEntity(integer, generateRandomString())).toList();
+		long start = System.nanoTime();
+		InsertReorderingBuffer.inTransaction(sessionFactory, batchSize, buffer -> {
+			for (int i = 0; i < total; i++) {
+				buffer.insert(uuidV6EntityList.get(i));
+				buffer.insert(intIdEntityList.get(i));
+			}
+		});
+		logThroughput("StatelessSession mixed inserts, reordered", 2L * total, start);
+	}
+
+	/**
+	 * Every writer inserts its entities in its own thread, StatelessSession and transaction, so that the id generator
+	 * is shared by all of them.
+	 */
+	public void createEntitiesWithConcurrentWriters(int writers, int totalPerWriter, int batchSize,
+			Supplier<?> entityFactory) {
+		long start = System.nanoTime();
+		try (ExecutorService executor = Executors.newFixedThreadPool(writers)) {
+			CompletableFuture.allOf(IntStream.range(0, writers)
+							.mapToObj(writer -> CompletableFuture.runAsync(() -> sessionFactory.inStatelessTransaction(statelessSession -> {
+								statelessSession.setJdbcBatchSize(batchSize);
+								for (int i = 0; i < totalPerWriter; i++) {
+									statelessSession.insert(entityFactory.get());
+								}
+							}), executor))
+							.toArray(CompletableFuture[]::new))
+					.join();
+		}
+		logThroughput(writers + " concurrent writers", (long) writers * totalPerWriter, start);
+	}
+
+	// IntIdEntity ids are assigned, so we continue after whatever a previous test or run left in the table
+	private int nextIntId() {
+		return sessionFactory.fromStatelessTransaction(session -> session
+				.createNativeQuery("select coalesce(max(id), 0) + 1 from INT_ID_ENTITY", int.class)
+				.getSingleResult());
+	}
+}
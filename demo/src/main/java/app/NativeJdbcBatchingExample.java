@@ -1,35 +1,64 @@
 package app;
 
+import app.batch.BatchSizeController;
+import app.batch.ChunkedPurger;
+import app.batch.ChunkedPurger.PurgeResult;
+import app.batch.PipelinedBatchWriter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.math.BigDecimal;
 import java.sql.*;
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static app.util.ThroughputUtil.logThroughput;
 
 @Slf4j
 public class NativeJdbcBatchingExample implements Runnable {
 	private static final String INSERT_SQL_QUERY = "INSERT INTO orders (id, amount) VALUES (?, ?)";
+	private static final String URL = "jdbc:postgresql://localhost:5432/demo";
+	private static final String USER = "user";
+	private static final String PASSWORD = "password";
+	private static final int TOTAL_ROWS = 1000;
+	private static final int BATCH_SIZE = 50;
+
+	// Method to clean up the table before inserting new rows, TRUNCATE when nothing else uses the table
+	public static void cleanUpTable(Connection connection) throws SQLException {
+		PurgeResult result = ChunkedPurger.withDefaults().purgeAll(connection, "orders", "id");
+		log.info("Table cleaned up. Truncated: {}, rows deleted: {}", result.truncated(), result.rows());
+	}
 
-	// Method to clean up the table before inserting new rows
-	private static void cleanUpTable(Connection connection) throws SQLException {
-		String deleteSQL = "DELETE FROM orders";
+	/**
+	 * One DELETE for all the matching rows: one transaction that locks them all until its commit.
+	 */
+	public static int deleteOrders(Connection connection, String predicate) throws SQLException {
 		try (Statement stmt = connection.createStatement()) {
-			int rowsDeleted = stmt.executeUpdate(deleteSQL);
-			connection.commit();  // Commit the cleanup operation
-			log.info("Table cleaned up. Rows deleted: {}", rowsDeleted);
+			int rowsDeleted = stmt.executeUpdate("DELETE FROM orders WHERE " + predicate);
+			connection.commit();
+			log.info("Rows deleted in one statement: {}", rowsDeleted);
+			return rowsDeleted;
 		}
 	}
 
-	private static void executeInBatches(Connection connection) throws SQLException {
+	/**
+	 * The same rows as {@link #deleteOrders(Connection, String)}, deleted and committed in chunks of {@code chunkSize}.
+	 */
+	public static long purgeOrders(Connection connection, String predicate, int chunkSize) throws SQLException {
+		return new ChunkedPurger(chunkSize, Duration.ofMillis(500), 0).purge(connection, "orders", "id", predicate).rows();
+	}
+
+	public static void executeInBatches(Connection connection, int total, int batchSize) throws SQLException {
+		long start = System.nanoTime();
 		try (PreparedStatement ps = connection.prepareStatement(NativeJdbcBatchingExample.INSERT_SQL_QUERY)) {
-			int batchSize = 50;  // Define the batch size
 			int count = 0;
 
-			for (int i = 1; i <= 1000; i++) {
+			for (int i = 1; i <= total; i++) {
 				ps.setInt(1, i);
 				ps.setBigDecimal(2, new java.math.BigDecimal("100.00"));
 				ps.addBatch();                   // Add to batch
 
 				if (++count % batchSize == 0) {
-					ps.executeBatch();           // Execute the batch every 50 records
+					ps.executeBatch();           // Execute the batch every batchSize records
 					connection.commit();         // Commit the transaction
 					log.info("Batch executed and committed.");
 				}
@@ -38,7 +67,24 @@ public class NativeJdbcBatchingExample implements Runnable {
 			ps.executeBatch();  // Execute the remaining records
 			connection.commit();  // Final commit
 			log.info("Final batch executed and committed.");
+			logThroughput("Serial native batches, batch size " + batchSize, total, start);
+
+		}
+		catch (SQLException e) {
+			connection.rollback();
+			log.error("SQL Exception: {}", e.getMessage());
+		}
+	}
 
+	public static void executeInAdaptiveBatches(Connection connection, int total, BatchSizeController controller) throws SQLException {
+		BigDecimal amount = new BigDecimal("100.00");
+		try (PreparedStatement ps = connection.prepareStatement(NativeJdbcBatchingExample.INSERT_SQL_QUERY)) {
+			controller.executeInBatches(ps, IntStream.rangeClosed(1, total)::iterator, (statement, i) -> {
+				statement.setInt(1, i);
+				statement.setBigDecimal(2, amount);
+			});
+			connection.commit();
+			log.info("Adaptive batches executed and committed, batch size ended at {}", controller.currentBatchSize());
 		}
 		catch (SQLException e) {
 			connection.rollback();
@@ -46,6 +92,23 @@ public class NativeJdbcBatchingExample implements Runnable {
 		}
 	}
 
+	/**
+	 * The same rows and transactions as {@link #executeInBatches(Connection, int, int)}, but the next batch is bound
+	 * while up to {@code inFlight} batches execute and commit, each on its own connection.
+	 */
+	public static long executePipelined(int total, int batchSize, int inFlight) throws SQLException {
+		BigDecimal amount = new BigDecimal("100.00");
+		PipelinedBatchWriter<Integer> writer = new PipelinedBatchWriter<>(NativeJdbcBatchingExample::openConnection,
+				INSERT_SQL_QUERY, (statement, i) -> {
+					statement.setInt(1, i);
+					statement.setBigDecimal(2, amount);
+				}, batchSize, inFlight);
+		long start = System.nanoTime();
+		long written = writer.write(IntStream.rangeClosed(1, total).iterator());
+		logThroughput("Pipelined native batches, batch size " + batchSize + ", " + inFlight + " in flight", written, start);
+		return written;
+	}
+
 	// Used for slides only
 	private static void executeInBatchesCodeExample(Connection connection) throws SQLException {
 		try (PreparedStatement ps = connection.prepareStatement(NativeJdbcBatchingExample.INSERT_SQL_QUERY)) {
@@ -66,15 +129,16 @@ public class NativeJdbcBatchingExample implements Runnable {
 		}
 	}
 
-	public void run() {
-		String url = "jdbc:postgresql://localhost:5432/demo";
-		String user = "user";
-		String password = "password";
+	public static Connection openConnection() throws SQLException {
+		Connection connection = DriverManager.getConnection(URL, USER, PASSWORD);
+		connection.setAutoCommit(false);  // Disable auto-commit for batching
+		return connection;
+	}
 
-		try (Connection connection = DriverManager.getConnection(url, user, password)) {
-			connection.setAutoCommit(false);  // Disable auto-commit for batching
+	public void run() {
+		try (Connection connection = openConnection()) {
 			cleanUpTable(connection);
-			executeInBatches(connection);
+			executeInBatches(connection, TOTAL_ROWS, BATCH_SIZE);
 		}
 		catch (SQLException e) {
 
@@ -1,37 +1,54 @@
 package app;
 
 import app.entity.hibernate.identifier.assigned.UuidV6Entity;
-import lombok.RequiredArgsConstructor;
+import app.jfr.CursorFetchEvents;
+import app.reactor.EntityProducerWithChronicle;
+import app.reactor.PartitionedEntityProducer;
+import app.reactor.VirtualThreadSchedulers;
 import lombok.extern.slf4j.Slf4j;
-import net.openhft.chronicle.set.ChronicleSet;
-import net.openhft.chronicle.set.ChronicleSetBuilder;
 import org.hibernate.SessionFactory;
 import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Stream;
 
 @Slf4j
-@RequiredArgsConstructor
 public class ReactiveStreamProcessingExamples {
 
 	private static final int BATCH_SIZE = 100; // Number of entities per batch
 	private static final int PARALLELISM = 4;  // Number of parallel threads
 
 	private final SessionFactory sessionFactory;
+	private final Duration processingTime; // Simulated I/O time per entity
+
+	public ReactiveStreamProcessingExamples(SessionFactory sessionFactory) {
+		this(sessionFactory, Duration.ofSeconds(1));
+	}
+
+	public ReactiveStreamProcessingExamples(SessionFactory sessionFactory, Duration processingTime) {
+		this.sessionFactory = sessionFactory;
+		this.processingTime = processingTime;
+	}
 
 	public Stream<UuidV6Entity> generateSourceStream() {
+		return generateSourceStream(100); // Important for streaming large datasets
+	}
+
+	public Stream<UuidV6Entity> generateSourceStream(int fetchSize) {
 		StatelessSession session = sessionFactory.openStatelessSession();
 		Transaction transaction = session.beginTransaction(); // Start a transaction
 
 		try {
-			return session.createQuery("FROM UuidV6Entity", UuidV6Entity.class)
-					.setFetchSize(100) // Important for streaming large datasets
-					.stream()
+			Stream<UuidV6Entity> rows = session.createQuery("FROM UuidV6Entity", UuidV6Entity.class)
+					.setFetchSize(fetchSize)
+					.stream();
+			return CursorFetchEvents.instrument(rows, "ReactiveStreamProcessingExamples", fetchSize, CursorFetchEvents::estimatedBytes)
 					.onClose(() -> {
 						log.info("Closing StatelessSession and transaction!");
 
@@ -77,28 +94,12 @@ public class ReactiveStreamProcessingExamples {
 		}
 	}
 
+	/**
+	 * The table is spilled to a memory-mapped Chronicle file by a background reader, see {@link EntityProducerWithChronicle}.
+	 * Closing the stream cancels the reader and deletes the file.
+	 */
 	public Stream<UuidV6Entity> generateSourceStreamFromChronicleSet() {
-		long entriesNum = getEntriesCount();
-		// Create ChronicleSet (off-heap, persisted, or in-memory as needed)
-		ChronicleSet<UuidV6Entity> chronicleSet = ChronicleSetBuilder
-				.of(UuidV6Entity.class)
-				.averageKey(new UuidV6Entity()) // Adjust as needed
-				.entries(entriesNum) // Estimate number of entries
-				.create();
-
-		// Stream data into ChronicleSet
-		try (Stream<UuidV6Entity> sourceStream = generateSourceStream()) {
-			sourceStream.forEach(chronicleSet::add);
-		}
-
-		// Return a stream from the ChronicleSet
-		return chronicleSet.stream().onClose(chronicleSet::close);
-	}
-
-	private long getEntriesCount() {
-		try (StatelessSession session = sessionFactory.openStatelessSession()) {
-			return session.createNativeQuery("select count(*) from UUID_V6_ENTITY ", long.class).getSingleResult();
-		}
+		return new EntityProducerWithChronicle(sessionFactory).publish().toStream(BATCH_SIZE);
 	}
 
 	public void processAsyncWithParallelism() {
@@ -114,21 +115,63 @@ public class ReactiveStreamProcessingExamples {
 	}
 
 
+	/**
+	 * Same processing as {@link #processAsyncWithParallelism()}, but the table is also read with PARALLELISM
+	 * connections, one key range each, instead of a single cursor.
+	 */
+	public Mono<Void> processAsyncWithParallelScan() {
+		return processInBatches(new PartitionedEntityProducer(sessionFactory, PARALLELISM, BATCH_SIZE).publish());
+	}
+
+	/**
+	 * The pipeline of {@link #processAsyncWithParallelism()} for any source: batches of BATCH_SIZE on PARALLELISM
+	 * bounded elastic rails.
+	 */
+	public Mono<Void> processInBatches(Flux<UuidV6Entity> source) {
+		return source
+				.buffer(BATCH_SIZE)
+				.parallel(PARALLELISM)
+				.runOn(Schedulers.boundedElastic())
+				.flatMap(this::processBatchAsync)
+				.sequential()
+				.doOnComplete(() -> log.info("Processing complete"))
+				.doOnError(e -> log.error("Error during processing", e))
+				.then();
+	}
+
+	/**
+	 * Each entity is processed on its own virtual thread, at most {@code concurrency} at a time.
+	 * With 1s of I/O per entity, the throughput is concurrency entities per second instead of PARALLELISM.
+	 */
+	public Mono<Void> processWithVirtualThreads(int concurrency) {
+		return processOnScheduler(Flux.fromStream(this::generateSourceStream), VirtualThreadSchedulers.virtual(), concurrency);
+	}
+
+	public Mono<Void> processOnScheduler(Flux<UuidV6Entity> source, Scheduler scheduler, int concurrency) {
+		return source
+				.flatMap(entity -> Mono.fromRunnable(() -> processEntity(entity)).subscribeOn(scheduler), concurrency)
+				.doOnComplete(() -> log.info("Processing complete"))
+				.doOnError(e -> log.error("Error during processing", e))
+				.then();
+	}
+
 	public Mono<Void> processBatchAsync(List<UuidV6Entity> batch) {
 		return Mono.fromRunnable(() -> {
 			log.info("Processing batch of size {}", batch.size());
-			batch.forEach(entity -> {
-				try {
-					// Simulate slow I/O processing like network call
-					Thread.sleep(1000);
-					log.info("Processed entity: {}", entity.getId());
-				} catch (InterruptedException e) {
-					Thread.currentThread().interrupt();
-					log.error("Thread interrupted while processing entity", e);
-				}
-			});
+			batch.forEach(this::processEntity);
 		});
 	}
+
+	private void processEntity(UuidV6Entity entity) {
+		try {
+			// Simulate slow I/O processing like network call
+			Thread.sleep(processingTime);
+			log.info("Processed entity: {}", entity.getId());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			log.error("Thread interrupted while processing entity", e);
+		}
+	}
 }
 
 
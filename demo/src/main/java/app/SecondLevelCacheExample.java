@@ -0,0 +1,64 @@
+package app;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import app.cache.ChronicleRegionFactory;
+import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import static app.util.MessageGenerator.generateRandomString;
+import static app.util.ThroughputUtil.logThroughput;
+
+/**
+ * Lookups of UuidV6Entity by id through the off-heap second-level cache, start with {@code -Dapp.hibernate.cache=true}.
+ * A StatelessSession never reads nor fills the second-level cache, the lookups use a Session.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class SecondLevelCacheExample {
+
+	private final SessionFactory sessionFactory;
+
+	public List<UUID> createEntities(int total) {
+		List<UuidV6Entity> entities = IntStream.range(0, total)
+				.mapToObj(integer -> new UuidV6Entity(generateRandomString())).toList();
+		sessionFactory.inStatelessTransaction(statelessSession -> {
+			statelessSession.setJdbcBatchSize(100);
+			entities.forEach(statelessSession::insert);
+		});
+		return entities.stream().map(UuidV6Entity::getId).toList();
+	}
+
+	/**
+	 * Finds every id in one new Session, the first level cache of a previous call never answers.
+	 * {@link CacheMode#IGNORE} reads from the database every time.
+	 *
+	 * @return the number of entities found
+	 */
+	public long findAll(List<UUID> ids, CacheMode cacheMode) {
+		long start = System.nanoTime();
+		long found;
+		try (Session session = sessionFactory.openSession()) {
+			session.setCacheMode(cacheMode);
+			session.setDefaultReadOnly(true);
+			found = ids.stream()
+					.map(id -> session.find(UuidV6Entity.class, id))
+					.filter(Objects::nonNull)
+					.count();
+		}
+		logThroughput("Lookups by id, cache mode " + cacheMode, ids.size(), start);
+		if (cacheMode != CacheMode.IGNORE) {
+			ChronicleRegionFactory.find(sessionFactory)
+					.ifPresent(regionFactory -> log.info("Second-level cache: {}", regionFactory.metrics()));
+		}
+		return found;
+	}
+}
@@ -1,17 +1,29 @@
 package app;
 
 import app.entity.hibernate.identifier.assigned.UuidV6Entity;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.SessionFactory;
 import org.hibernate.StatelessSession;
 
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Stream;
 @Slf4j
-@RequiredArgsConstructor
 public class SimpleStreamProcessingExamples {
 
 	private final SessionFactory sessionFactory;
+	private final Duration processingTime; // Simulated I/O time per entity
+
+	public SimpleStreamProcessingExamples(SessionFactory sessionFactory) {
+		this(sessionFactory, Duration.ofSeconds(1));
+	}
+
+	public SimpleStreamProcessingExamples(SessionFactory sessionFactory, Duration processingTime) {
+		this.sessionFactory = sessionFactory;
+		this.processingTime = processingTime;
+	}
 
 	private Stream<UuidV6Entity> generateSourceStream() {
 		StatelessSession session = sessionFactory.openStatelessSession();
@@ -20,16 +32,45 @@ public class SimpleStreamProcessingExamples {
 	}
 
 	public void processStreamWithSlowIntermediary() {
-		try (Stream<UuidV6Entity> stream = generateSourceStream().parallel()) { // Use parallel stream for concurrent processing
+		processInParallel(generateSourceStream());
+	}
+
+	public void processInParallel(Stream<UuidV6Entity> source) {
+		try (Stream<UuidV6Entity> stream = source.parallel()) { // Use parallel stream for concurrent processing
 			stream.forEach(this::processEntity);
 		}
 	}
 
+	public void processStreamWithVirtualThreads(int maxConcurrency) {
+		processWithVirtualThreads(generateSourceStream(), maxConcurrency);
+	}
+
+	/**
+	 * One virtual thread per entity instead of the common ForkJoinPool, which only has (cores - 1) threads to block.
+	 * The semaphore keeps at most maxConcurrency entities in flight, the stream is not read further ahead than that.
+	 */
+	public void processWithVirtualThreads(Stream<UuidV6Entity> source, int maxConcurrency) {
+		Semaphore permits = new Semaphore(maxConcurrency);
+		try (Stream<UuidV6Entity> stream = source;
+			 ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) { // close() waits for all tasks
+			stream.forEach(entity -> {
+				permits.acquireUninterruptibly();
+				executor.execute(() -> {
+					try {
+						processEntity(entity);
+					} finally {
+						permits.release();
+					}
+				});
+			});
+		}
+	}
+
 	private void processEntity(UuidV6Entity entity) {
 		try {
 			log.info("Processing entity: {}", entity.getId());
 			// Simulate a slow I/O operation with sleep (can be replaced with real I/O task)
-			Thread.sleep(1000);
+			Thread.sleep(processingTime);
 		} catch (InterruptedException e) {
 			Thread.currentThread().interrupt();
 			log.error("Thread was interrupted while processing entity: {}", entity.getId(), e);
@@ -0,0 +1,129 @@
+package app.batch;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hill climbing JDBC batch size: rows/sec is measured on every flush, and after {@code samplesPerStep} flushes the
+ * batch size is moved by {@code stepFactor} in the direction that improved the throughput last time, or turned
+ * around when the throughput got worse. It keeps oscillating around the best size for the current row width, network
+ * latency and server load, within [minBatchSize, maxBatchSize].
+ * <p>
+ * Hibernate keeps the batch of a session with the size it was created with, so for a StatelessSession the batch size
+ * is set to the maximum and the batch is flushed explicitly through the {@link JdbcCoordinator} when the controller
+ * says so. The controller is meant to be used by one writer at a time, {@link #currentBatchSize()} can be read anywhere.
+ */
+@Slf4j
+public class BatchSizeController {
+
+	private final int minBatchSize;
+	private final int maxBatchSize;
+	private final double stepFactor;
+	private final int samplesPerStep;
+
+	private volatile int currentBatchSize;
+	private int direction = 1;
+	private double previousRowsPerSecond;
+	private int samples;
+	private long sampleRows;
+	private long sampleNanos;
+
+	public BatchSizeController(int initialBatchSize, int minBatchSize, int maxBatchSize, double stepFactor, int samplesPerStep) {
+		this.minBatchSize = minBatchSize;
+		this.maxBatchSize = maxBatchSize;
+		this.stepFactor = stepFactor;
+		this.samplesPerStep = samplesPerStep;
+		this.currentBatchSize = Math.clamp(initialBatchSize, minBatchSize, maxBatchSize);
+	}
+
+	/**
+	 * Starts at 50, between 1 and 1000, moves by 25% every 3 flushes.
+	 */
+	public static BatchSizeController withDefaults() {
+		return new BatchSizeController(50, 1, 1000, 1.25, 3);
+	}
+
+	public int currentBatchSize() {
+		return currentBatchSize;
+	}
+
+	/**
+	 * Records one executed batch.
+	 */
+	public void onFlush(int rows, long nanos) {
+		sampleRows += rows;
+		sampleNanos += nanos;
+		if (++samples < samplesPerStep) {
+			return;
+		}
+		double rowsPerSecond = sampleRows * 1_000_000_000.0 / Math.max(1, sampleNanos);
+		if (rowsPerSecond < previousRowsPerSecond) {
+			direction = -direction; // the last move made it worse
+		}
+		previousRowsPerSecond = rowsPerSecond;
+		samples = 0;
+		sampleRows = 0;
+		sampleNanos = 0;
+
+		int previous = currentBatchSize;
+		int next = (int) Math.round(direction > 0 ? previous * stepFactor : previous / stepFactor);
+		if (next == previous) {
+			next += direction; // small sizes would never move with a multiplicative step
+		}
+		currentBatchSize = Math.clamp(next, minBatchSize, maxBatchSize);
+		log.debug("{} rows/s with batch size {}, next {}", Math.round(rowsPerSecond), previous, currentBatchSize);
+	}
+
+	/**
+	 * Inserts the entities in the current transaction of the session, flushing with the current batch size.
+	 */
+	public void insert(StatelessSession session, Iterable<?> entities) {
+		session.setJdbcBatchSize(maxBatchSize); // never flushed by Hibernate before we do
+		JdbcCoordinator jdbcCoordinator = ((SharedSessionContractImplementor) session).getJdbcCoordinator();
+		int pending = 0;
+		long start = System.nanoTime();
+		for (Object entity : entities) {
+			session.insert(entity);
+			if (++pending >= currentBatchSize) {
+				jdbcCoordinator.executeBatch();
+				long now = System.nanoTime();
+				onFlush(pending, now - start);
+				pending = 0;
+				start = now;
+			}
+		}
+		if (pending > 0) {
+			jdbcCoordinator.executeBatch();
+			onFlush(pending, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Native JDBC equivalent, the statement is executed with the current batch size. Commits are left to the caller.
+	 */
+	public <T> void executeInBatches(PreparedStatement ps, Iterable<T> rows, RowBinder<T> binder) throws SQLException {
+		int pending = 0;
+		long start = System.nanoTime();
+		for (T row : rows) {
+			binder.bind(ps, row);
+			ps.addBatch();
+			if (++pending >= currentBatchSize) {
+				ps.executeBatch();
+				long now = System.nanoTime();
+				onFlush(pending, now - start);
+				pending = 0;
+				start = now;
+			}
+		}
+		if (pending > 0) {
+			ps.executeBatch();
+			onFlush(pending, System.nanoTime() - start);
+		}
+	}
+}
@@ -0,0 +1,256 @@
+package app.batch;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import app.util.ThroughputUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Deletes the rows of a table in chunks of {@code chunkSize} keys, every chunk in its own transaction, instead of one
+ * {@code DELETE} over the whole table: the WAL is written in small bursts, the row locks are released at every commit
+ * and a failure only rolls back the current chunk, a purge run again continues where it stopped.
+ * <p>
+ * The chunks follow the key (keyset pagination): every chunk deletes the next {@code chunkSize} matching keys after the
+ * last key of the previous one, the primary key index is read from where the previous chunk stopped instead of
+ * skipping the dead rows again. Between the chunks the purge is throttled:
+ * <ul>
+ * <li>a chunk slower than {@code maxChunkLatency} is followed by a pause as long as the chunk, the database gets as
+ * much time for the other sessions as the purge uses,</li>
+ * <li>while a standby replays more than {@code maxReplicationLagBytes} behind, the purge waits, at most
+ * {@link #MAX_LAG_WAIT}.</li>
+ * </ul>
+ * When the whole table is purged, it is truncated instead if that is safe: no foreign key points to it, it has no
+ * {@code ON DELETE} trigger, that TRUNCATE would skip, and its exclusive lock is acquired within {@link #LOCK_TIMEOUT}.
+ * <p>
+ * The connection must not be in auto-commit, the purger commits it.
+ */
+@Slf4j
+public class ChunkedPurger {
+
+	public static final Duration LOCK_TIMEOUT = Duration.ofSeconds(1);
+	public static final Duration MAX_LAG_WAIT = Duration.ofSeconds(30);
+	private static final long LAG_POLL_MILLIS = 100;
+	private static final String LOCK_NOT_AVAILABLE = "55P03";
+
+	private final int chunkSize;
+	private final Duration maxChunkLatency;
+	private final long maxReplicationLagBytes;
+
+	/**
+	 * Reported after every chunk.
+	 */
+	public record Progress(String table, long rows, int chunks, Object lastKey, long throttledNanos) {
+	}
+
+	/**
+	 * {@code rows} is 0 when the table was truncated, TRUNCATE does not count them.
+	 */
+	public record PurgeResult(String table, long rows, int chunks, boolean truncated, long throttledNanos) {
+	}
+
+	/**
+	 * @param maxChunkLatency        {@link Duration#ZERO} to never pause between the chunks
+	 * @param maxReplicationLagBytes 0 to not check the replication lag
+	 */
+	public ChunkedPurger(int chunkSize, Duration maxChunkLatency, long maxReplicationLagBytes) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+		this.maxChunkLatency = maxChunkLatency;
+		this.maxReplicationLagBytes = maxReplicationLagBytes;
+	}
+
+	/**
+	 * 10 000 rows per chunk, pauses after chunks slower than 500 ms and while a standby is more than 64 MB behind.
+	 */
+	public static ChunkedPurger withDefaults() {
+		return new ChunkedPurger(10_000, Duration.ofMillis(500), 64L * 1024 * 1024);
+	}
+
+	/**
+	 * Empties the table, with TRUNCATE when it is safe.
+	 */
+	public PurgeResult purgeAll(Connection connection, String table, String keyColumn) throws SQLException {
+		long start = System.nanoTime();
+		if (truncateIfSafe(connection, table)) {
+			log.info("Purge of {} with TRUNCATE in {} ms", table, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			return new PurgeResult(table, 0, 0, true, 0);
+		}
+		return purge(connection, table, keyColumn, null, this::logProgress);
+	}
+
+	/**
+	 * Deletes the rows matching {@code predicate}, a SQL condition on the table without parameters, in chunks.
+	 */
+	public PurgeResult purge(Connection connection, String table, String keyColumn, String predicate) throws SQLException {
+		return purge(connection, table, keyColumn, predicate, this::logProgress);
+	}
+
+	/**
+	 * @param predicate null to delete every row
+	 */
+	public PurgeResult purge(Connection connection, String table, String keyColumn, String predicate,
+			Consumer<Progress> progressListener) throws SQLException {
+		long start = System.nanoTime();
+		long rows = 0;
+		int chunks = 0;
+		long throttledNanos = 0;
+		Object lastKey = null;
+		try (PreparedStatement first = connection.prepareStatement(chunkSql(table, keyColumn, predicate, false));
+				PreparedStatement next = connection.prepareStatement(chunkSql(table, keyColumn, predicate, true))) {
+			while (true) {
+				long chunkStart = System.nanoTime();
+				PreparedStatement statement = lastKey == null ? first : next;
+				int index = 1;
+				if (lastKey != null) {
+					statement.setObject(index++, lastKey);
+				}
+				statement.setInt(index, chunkSize);
+				long deleted;
+				try (ResultSet resultSet = statement.executeQuery()) {
+					resultSet.next();
+					deleted = resultSet.getLong(1);
+					if (deleted > 0) {
+						lastKey = resultSet.getObject(2);
+					}
+				}
+				connection.commit();
+				if (deleted == 0) {
+					break;
+				}
+				rows += deleted;
+				chunks++;
+				throttledNanos += throttle(connection, System.nanoTime() - chunkStart);
+				progressListener.accept(new Progress(table, rows, chunks, lastKey, throttledNanos));
+				if (deleted < chunkSize) {
+					break;
+				}
+			}
+		}
+		catch (SQLException e) {
+			connection.rollback();
+			log.error("Purge of {} stopped after {} rows, the last deleted key is {}", table, rows, lastKey);
+			throw e;
+		}
+		ThroughputUtil.logThroughput("Purge of " + table + " in " + chunks + " chunks", rows, start);
+		return new PurgeResult(table, rows, chunks, false, throttledNanos);
+	}
+
+	/**
+	 * The keys are selected in a CTE, so that the LIMIT applies before the DELETE, and the number of rows and the
+	 * greatest key deleted come back in one row. There is no max() for every key type, uuid has none.
+	 */
+	static String chunkSql(String table, String keyColumn, String predicate, boolean afterLastKey) {
+		StringBuilder where = new StringBuilder();
+		if (afterLastKey) {
+			where.append(keyColumn).append(" > ?");
+		}
+		if (predicate != null) {
+			where.append(afterLastKey ? " AND " : "").append('(').append(predicate).append(')');
+		}
+		return """
+				WITH chunk AS (
+				  SELECT %2$s FROM %1$s%3$s ORDER BY %2$s LIMIT ?
+				), deleted AS (
+				  DELETE FROM %1$s WHERE %2$s IN (SELECT %2$s FROM chunk) RETURNING %2$s
+				)
+				SELECT count(*), (SELECT %2$s FROM deleted ORDER BY %2$s DESC LIMIT 1) FROM deleted
+				""".formatted(table, keyColumn, where.isEmpty() ? "" : " WHERE " + where);
+	}
+
+	private boolean truncateIfSafe(Connection connection, String table) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement("""
+				SELECT
+				  (SELECT count(*) FROM pg_constraint
+				   WHERE contype = 'f' AND confrelid = ?::regclass AND conrelid <> confrelid),
+				  (SELECT count(*) FROM pg_trigger
+				   WHERE tgrelid = ?::regclass AND NOT tgisinternal AND tgtype & 8 <> 0)
+				""")) {
+			statement.setString(1, table);
+			statement.setString(2, table);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				resultSet.next();
+				if (resultSet.getLong(1) > 0 || resultSet.getLong(2) > 0) {
+					log.info("{} is referenced by foreign keys or has ON DELETE triggers, purging it in chunks", table);
+					connection.commit();
+					return false;
+				}
+			}
+		}
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("SET LOCAL lock_timeout = '" + LOCK_TIMEOUT.toMillis() + "ms'");
+			statement.execute("TRUNCATE " + table);
+			connection.commit();
+			return true;
+		}
+		catch (SQLException e) {
+			connection.rollback();
+			if (!LOCK_NOT_AVAILABLE.equals(e.getSQLState())) {
+				throw e;
+			}
+			log.info("{} is in use, purging it in chunks", table);
+			return false;
+		}
+	}
+
+	/**
+	 * @return the time spent waiting
+	 */
+	private long throttle(Connection connection, long chunkNanos) throws SQLException {
+		long start = System.nanoTime();
+		if (!maxChunkLatency.isZero() && chunkNanos > maxChunkLatency.toNanos()) {
+			sleep(TimeUnit.NANOSECONDS.toMillis(chunkNanos));
+		}
+		if (maxReplicationLagBytes > 0) {
+			long deadline = System.nanoTime() + MAX_LAG_WAIT.toNanos();
+			long lag;
+			while ((lag = replicationLagBytes(connection)) > maxReplicationLagBytes) {
+				if (System.nanoTime() > deadline) {
+					log.warn("Replication lag still {} bytes after {}, purging on", lag, MAX_LAG_WAIT);
+					break;
+				}
+				sleep(LAG_POLL_MILLIS);
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Replay lag of the slowest standby, 0 without standby or without the privilege to see them.
+	 */
+	private static long replicationLagBytes(Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery(
+						"SELECT coalesce(max(pg_wal_lsn_diff(pg_current_wal_lsn(), replay_lsn)), 0) FROM pg_stat_replication")) {
+			resultSet.next();
+			long lag = resultSet.getLong(1);
+			connection.commit();
+			return lag;
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while throttling the purge", e);
+		}
+	}
+
+	private void logProgress(Progress progress) {
+		if (progress.chunks() % 10 == 0) {
+			log.info("Purge of {}: {} rows in {} chunks, last key {}, throttled {} ms", progress.table(), progress.rows(),
+					progress.chunks(), progress.lastKey(), TimeUnit.NANOSECONDS.toMillis(progress.throttledNanos()));
+		}
+	}
+}
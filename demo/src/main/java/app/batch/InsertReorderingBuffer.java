@@ -0,0 +1,108 @@
+package app.batch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.metamodel.MappingMetamodel;
+import org.hibernate.metamodel.mapping.ForeignKeyDescriptor;
+import org.hibernate.metamodel.mapping.internal.ToOneAttributeMapping;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * {@code hibernate.order_inserts} for a StatelessSession: the inserts are queued per entity type and a queue is sent
+ * to the session only when it holds {@code batchSize} entities, or on {@link #flush()}. Alternating types then no longer
+ * execute the JDBC batch at every insert, every batch is full except the last one of each type.
+ * <p>
+ * Before a queue is flushed, the queues of the entities it references through a foreign key (owning side of a
+ * to-one association) are flushed, so a row is never inserted before the row it points to. Insertion order is kept
+ * within a type. Ids, including IDENTITY ones, are only assigned when the entity is flushed.
+ */
+public class InsertReorderingBuffer {
+
+	private final StatelessSession session;
+	private final MappingMetamodel metamodel;
+	private final int batchSize;
+	private final Map<EntityPersister, List<Object>> queues = new LinkedHashMap<>();
+	private final Map<EntityPersister, List<EntityPersister>> parents = new HashMap<>();
+
+	public InsertReorderingBuffer(StatelessSession session, int batchSize) {
+		this.session = session;
+		this.metamodel = ((SharedSessionContractImplementor) session).getFactory().getMappingMetamodel();
+		this.batchSize = batchSize;
+		session.setJdbcBatchSize(batchSize);
+	}
+
+	/**
+	 * Runs the work in a stateless transaction and flushes the buffer before the commit.
+	 */
+	public static void inTransaction(SessionFactory sessionFactory, int batchSize, Consumer<InsertReorderingBuffer> work) {
+		sessionFactory.inStatelessTransaction(statelessSession -> {
+			InsertReorderingBuffer buffer = new InsertReorderingBuffer(statelessSession, batchSize);
+			work.accept(buffer);
+			buffer.flush();
+		});
+	}
+
+	public void insert(Object entity) {
+		EntityPersister persister = metamodel.getEntityDescriptor(entity.getClass());
+		List<Object> queue = queues.computeIfAbsent(persister, p -> new ArrayList<>(batchSize));
+		queue.add(entity);
+		if (queue.size() >= batchSize) {
+			flush(persister, new HashSet<>());
+		}
+	}
+
+	/**
+	 * Sends all the queued inserts, referenced types first.
+	 */
+	public void flush() {
+		Set<EntityPersister> visited = new HashSet<>();
+		for (EntityPersister persister : List.copyOf(queues.keySet())) {
+			flush(persister, visited);
+		}
+	}
+
+	private void flush(EntityPersister persister, Set<EntityPersister> visited) {
+		if (!visited.add(persister)) {
+			return; // already flushed, or a cycle between types that no order can satisfy
+		}
+		for (EntityPersister parent : parentsOf(persister)) {
+			flush(parent, visited);
+		}
+		List<Object> queue = queues.get(persister);
+		if (queue == null || queue.isEmpty()) {
+			return;
+		}
+		for (Object entity : queue) {
+			session.insert(entity);
+		}
+		queue.clear();
+		// the last partial batch would otherwise wait for the next type to be inserted
+		((SharedSessionContractImplementor) session).getJdbcCoordinator().executeBatch();
+	}
+
+	private List<EntityPersister> parentsOf(EntityPersister persister) {
+		return parents.computeIfAbsent(persister, p -> {
+			List<EntityPersister> referenced = new ArrayList<>();
+			p.forEachAttributeMapping(attributeMapping -> {
+				if (attributeMapping instanceof ToOneAttributeMapping toOne
+						&& toOne.getSideNature() == ForeignKeyDescriptor.Nature.KEY) {
+					EntityPersister parent = toOne.getAssociatedEntityMappingType().getEntityPersister();
+					if (parent != p) {
+						referenced.add(parent);
+					}
+				}
+			});
+			return referenced;
+		});
+	}
+}
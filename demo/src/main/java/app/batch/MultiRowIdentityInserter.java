@@ -0,0 +1,128 @@
+package app.batch;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.metamodel.mapping.BasicValuedModelPart;
+import org.hibernate.metamodel.mapping.EntityIdentifierMapping;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Inserts entities with an IDENTITY id {@code rowsPerStatement} at a time:
+ * <pre>
+ * INSERT INTO IDENTITY_ENTITY (text) VALUES (?), (?), ... RETURNING id
+ * </pre>
+ * Hibernate has to run one INSERT per entity for IDENTITY to read the generated key back, this is one round trip per
+ * chunk instead. The statement text only depends on {@code rowsPerStatement} (plus one for the remainder),
+ * so the server side prepared statement is reused.
+ * <p>
+ * The rows of one statement are inserted in VALUES order and the identity sequence only grows, so the returned ids
+ * are sorted before being written back: that does not depend on the order in which RETURNING emits the rows.
+ */
+public class MultiRowIdentityInserter<T> {
+
+	// bind parameters are limited to a signed short by the wire protocol
+	private static final int MAX_PARAMETERS = Short.MAX_VALUE;
+
+	private final EntityPersister persister;
+	private final String tableName;
+	private final String columns;
+	private final List<Function<Object, Object>> getters;
+	private final int rowsPerStatement;
+
+	private MultiRowIdentityInserter(EntityPersister persister, List<String> columnNames,
+			List<Function<Object, Object>> getters, int rowsPerStatement) {
+		this.persister = persister;
+		this.tableName = persister.getIdentifierTableDetails().getTableName();
+		this.columns = String.join(", ", columnNames);
+		this.getters = getters;
+		this.rowsPerStatement = Math.min(rowsPerStatement, MAX_PARAMETERS / Math.max(1, getters.size()));
+	}
+
+	public static <T> MultiRowIdentityInserter<T> of(SessionFactory sessionFactory, Class<T> entityClass, int rowsPerStatement) {
+		EntityPersister persister = sessionFactory.unwrap(SessionFactoryImplementor.class)
+				.getMappingMetamodel()
+				.getEntityDescriptor(entityClass);
+		List<String> columnNames = new ArrayList<>();
+		List<Function<Object, Object>> getters = new ArrayList<>();
+		persister.forEachAttributeMapping(attributeMapping -> {
+			BasicValuedModelPart basicPart = attributeMapping.asBasicValuedModelPart();
+			if (basicPart == null) {
+				throw new IllegalArgumentException("Attribute " + attributeMapping.getAttributeName() + " of "
+						+ entityClass.getName() + " is not a basic column");
+			}
+			if (basicPart.isInsertable()) {
+				columnNames.add(basicPart.getSelectionExpression());
+				getters.add(attributeMapping.getPropertyAccess().getGetter()::get);
+			}
+		});
+		return new MultiRowIdentityInserter<>(persister, columnNames, getters, rowsPerStatement);
+	}
+
+	/**
+	 * Inserts the entities in the current transaction of the session and sets their generated ids, in order.
+	 */
+	public void insert(StatelessSession session, List<? extends T> entities) {
+		SharedSessionContractImplementor sessionImplementor = (SharedSessionContractImplementor) session;
+		session.doWork(connection -> {
+			String fullSql = sql(rowsPerStatement);
+			int offset = 0;
+			while (offset < entities.size()) {
+				int rows = Math.min(rowsPerStatement, entities.size() - offset);
+				List<? extends T> chunk = entities.subList(offset, offset + rows);
+				long[] ids = execute(connection, rows == rowsPerStatement ? fullSql : sql(rows), chunk);
+				for (int i = 0; i < rows; i++) {
+					identifierMapping().setIdentifier(chunk.get(i), ids[i], sessionImplementor);
+				}
+				offset += rows;
+			}
+		});
+	}
+
+	private long[] execute(Connection connection, String sql, List<? extends T> chunk) throws SQLException {
+		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+			int index = 1;
+			for (T entity : chunk) {
+				for (Function<Object, Object> getter : getters) {
+					ps.setObject(index++, getter.apply(entity));
+				}
+			}
+			long[] ids = new long[chunk.size()];
+			int count = 0;
+			try (ResultSet resultSet = ps.executeQuery()) {
+				while (resultSet.next()) {
+					ids[count++] = resultSet.getLong(1);
+				}
+			}
+			if (count != ids.length) {
+				throw new SQLException("Expected " + ids.length + " generated ids but got " + count);
+			}
+			Arrays.sort(ids);
+			return ids;
+		}
+	}
+
+	private String sql(int rows) {
+		String row = getters.stream().map(getter -> "?").collect(Collectors.joining(", ", "(", ")"));
+		return IntStream.range(0, rows)
+				.mapToObj(i -> row)
+				.collect(Collectors.joining(", ", "INSERT INTO " + tableName + " (" + columns + ") VALUES ",
+						" RETURNING " + identifierMapping().asBasicValuedModelPart().getSelectionExpression()));
+	}
+
+	private EntityIdentifierMapping identifierMapping() {
+		return persister.getIdentifierMapping();
+	}
+}
@@ -0,0 +1,155 @@
+package app.batch;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Native JDBC batches bound on the calling thread while the previous ones execute and commit on other connections.
+ * <p>
+ * There are {@code inFlight} slots, a connection and its prepared statement each. The caller binds {@code batchSize}
+ * rows into a free slot and hands it over to the slot's executor thread for {@code executeBatch} and {@code commit},
+ * then binds the next batch into the next free slot. With 2 slots the encoding of a batch overlaps the round trip of
+ * the previous one (double buffering), with more, several round trips overlap too. With 1 it is the serial loop.
+ * <p>
+ * Every batch is its own transaction, like the serial loop, and batches can commit out of order. After the first
+ * failure no new batch is started and the failure is thrown by {@link #write(Iterator)} once the others are done.
+ */
+@Slf4j
+public class PipelinedBatchWriter<T> {
+
+	@FunctionalInterface
+	public interface ConnectionFactory {
+		Connection open() throws SQLException;
+	}
+
+	private final ConnectionFactory connectionFactory;
+	private final String sql;
+	private final RowBinder<T> binder;
+	private final int batchSize;
+	private final int inFlight;
+
+	private record Slot(Connection connection, PreparedStatement statement) {
+	}
+
+	public PipelinedBatchWriter(ConnectionFactory connectionFactory, String sql, RowBinder<T> binder, int batchSize, int inFlight) {
+		this.connectionFactory = connectionFactory;
+		this.sql = sql;
+		this.binder = binder;
+		this.batchSize = batchSize;
+		this.inFlight = inFlight;
+	}
+
+	/**
+	 * @return the number of rows written
+	 */
+	public long write(Iterator<? extends T> rows) throws SQLException {
+		List<Slot> slots = new ArrayList<>(inFlight);
+		BlockingQueue<Slot> free = new ArrayBlockingQueue<>(inFlight);
+		AtomicReference<SQLException> failure = new AtomicReference<>();
+		long written = 0;
+		try (ExecutorService executor = Executors.newFixedThreadPool(inFlight, Thread.ofPlatform().name("batch-executor-", 0).factory())) {
+			try {
+				for (int i = 0; i < inFlight; i++) {
+					Slot slot = openSlot();
+					slots.add(slot);
+					free.add(slot);
+				}
+				while (rows.hasNext() && failure.get() == null) {
+					Slot slot = free.take(); // waits while every batch is in flight
+					int bound = 0;
+					try {
+						while (bound < batchSize && rows.hasNext()) {
+							binder.bind(slot.statement(), rows.next());
+							slot.statement().addBatch();
+							bound++;
+						}
+					}
+					catch (SQLException | RuntimeException e) {
+						failure.compareAndSet(null, e instanceof SQLException sqlException ? sqlException : new SQLException(e));
+						slot.statement().clearBatch();
+						free.add(slot);
+						break;
+					}
+					written += bound;
+					executor.execute(() -> {
+						try {
+							slot.statement().executeBatch();
+							slot.connection().commit();
+						}
+						catch (SQLException e) {
+							failure.compareAndSet(null, e);
+							rollback(slot);
+						}
+						finally {
+							free.add(slot);
+						}
+					});
+				}
+				for (int i = 0; i < inFlight; i++) {
+					free.take(); // all the batches are done
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failure.compareAndSet(null, new SQLException("Interrupted while waiting for a batch", e));
+			}
+		}
+		finally {
+			close(slots);
+		}
+		if (failure.get() != null) {
+			throw failure.get();
+		}
+		return written;
+	}
+
+	private Slot openSlot() throws SQLException {
+		Connection connection = connectionFactory.open();
+		try {
+			connection.setAutoCommit(false);
+			return new Slot(connection, connection.prepareStatement(sql));
+		}
+		catch (SQLException e) {
+			connection.close();
+			throw e;
+		}
+	}
+
+	private static void rollback(Slot slot) {
+		try {
+			slot.statement().clearBatch();
+			slot.connection().rollback();
+		}
+		catch (SQLException e) {
+			log.warn("Rollback failed: {}", e.getMessage());
+		}
+	}
+
+	private static void close(List<Slot> slots) {
+		for (Slot slot : slots) {
+			try {
+				slot.statement().close();
+			}
+			catch (SQLException e) {
+				log.warn("Failed to close a batch statement: {}", e.getMessage());
+			}
+			try {
+				slot.connection().close();
+			}
+			catch (SQLException e) {
+				log.warn("Failed to close a batch connection: {}", e.getMessage());
+			}
+		}
+	}
+}
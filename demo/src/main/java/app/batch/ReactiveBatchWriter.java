@@ -0,0 +1,97 @@
+package app.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive sink writing a Flux of entities in JDBC batches, {@code maxInFlight} batch transactions at a time.
+ * <p>
+ * Every batch is one StatelessSession with {@code setJdbcBatchSize(batchSize)} and one transaction, on its own pooled
+ * connection. Upstream is only asked for the next batch once one of the in-flight batches is done, so a slow database
+ * (or a saturated pool: keep maxInFlight below the pool size) slows the source down instead of buffering in memory.
+ * <p>
+ * A batch that fails is rolled back and split in two, recursively, until the failing rows are isolated: they are
+ * returned as rejected in the {@link WriteSummary} and all other rows are written.
+ */
+@Slf4j
+public class ReactiveBatchWriter<T> implements Function<Flux<T>, Mono<ReactiveBatchWriter.WriteSummary<T>>> {
+
+	private final SessionFactory sessionFactory;
+	private final int batchSize;
+	private final int maxInFlight;
+	private final BiConsumer<StatelessSession, T> writeOperation;
+	private final Scheduler scheduler;
+
+	public record WriteSummary<T>(long written, long transactions, long failedTransactions, List<T> rejected) {
+
+		static <T> WriteSummary<T> empty() {
+			return new WriteSummary<>(0, 0, 0, List.of());
+		}
+
+		WriteSummary<T> plus(WriteSummary<T> other) {
+			List<T> allRejected = rejected;
+			if (rejected.isEmpty()) {
+				allRejected = other.rejected;
+			} else if (!other.rejected.isEmpty()) {
+				allRejected = new ArrayList<>(rejected);
+				allRejected.addAll(other.rejected);
+			}
+			return new WriteSummary<>(written + other.written, transactions + other.transactions,
+					failedTransactions + other.failedTransactions, allRejected);
+		}
+	}
+
+	public ReactiveBatchWriter(SessionFactory sessionFactory, int batchSize, int maxInFlight) {
+		this(sessionFactory, batchSize, maxInFlight, StatelessSession::insert, Schedulers.boundedElastic());
+	}
+
+	public ReactiveBatchWriter(SessionFactory sessionFactory, int batchSize, int maxInFlight,
+			BiConsumer<StatelessSession, T> writeOperation, Scheduler scheduler) {
+		this.sessionFactory = sessionFactory;
+		this.batchSize = batchSize;
+		this.maxInFlight = maxInFlight;
+		this.writeOperation = writeOperation;
+		this.scheduler = scheduler;
+	}
+
+	@Override
+	public Mono<WriteSummary<T>> apply(Flux<T> entities) {
+		return entities
+				.buffer(batchSize)
+				// the concurrency, maxInFlight, bounds the batches requested from upstream and written at once,
+				// the prefetch only sizes the queue of each inner Mono, which emits a single summary
+				.flatMap(batch -> Mono.fromCallable(() -> writeBisecting(batch)).subscribeOn(scheduler), maxInFlight, 1)
+				.reduce(WriteSummary.empty(), WriteSummary::plus);
+	}
+
+	private WriteSummary<T> writeBisecting(List<T> batch) {
+		try {
+			sessionFactory.inStatelessTransaction(session -> {
+				session.setJdbcBatchSize(batchSize);
+				batch.forEach(entity -> writeOperation.accept(session, entity));
+			});
+			return new WriteSummary<>(batch.size(), 1, 0, List.of());
+		} catch (RuntimeException e) {
+			if (batch.size() == 1) {
+				log.warn("Rejected entity {}: {}", batch.getFirst(), e.getMessage());
+				return new WriteSummary<>(0, 1, 1, List.of(batch.getFirst()));
+			}
+			log.debug("Batch of {} failed, retrying both halves", batch.size(), e);
+			int middle = batch.size() / 2;
+			return new WriteSummary<T>(0, 1, 1, List.of())
+					.plus(writeBisecting(batch.subList(0, middle)))
+					.plus(writeBisecting(batch.subList(middle, batch.size())));
+		}
+	}
+}
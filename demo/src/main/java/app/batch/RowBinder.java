@@ -0,0 +1,12 @@
+package app.batch;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Sets the parameters of one row on a batched statement, {@code addBatch} is left to the caller.
+ */
+@FunctionalInterface
+public interface RowBinder<T> {
+	void bind(PreparedStatement ps, T row) throws SQLException;
+}
@@ -0,0 +1,79 @@
+package app.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.hibernate.cache.CacheException;
+
+/**
+ * Turns the keys and values of the Hibernate cache into bytes for Chronicle Map, which compares keys by their bytes.
+ * The ids of {@link org.hibernate.cache.internal.SimpleCacheKeysFactory simple cache keys} (UUID, Long, Integer,
+ * String) take their natural size, with a tag byte so that the 4 bytes of an Integer are never the prefix of the same
+ * bytes of something else. Anything else, cache entries included, goes through Java serialization.
+ */
+final class CacheCodec {
+
+	private static final byte UUID_TAG = 1;
+	private static final byte LONG_TAG = 2;
+	private static final byte INTEGER_TAG = 3;
+	private static final byte STRING_TAG = 4;
+	private static final byte SERIALIZED_TAG = 5;
+
+	private CacheCodec() {
+	}
+
+	static byte[] encode(Object value) {
+		if (value instanceof UUID uuid) {
+			return ByteBuffer.allocate(17).put(UUID_TAG)
+					.putLong(uuid.getMostSignificantBits())
+					.putLong(uuid.getLeastSignificantBits())
+					.array();
+		}
+		if (value instanceof Long longValue) {
+			return ByteBuffer.allocate(9).put(LONG_TAG).putLong(longValue).array();
+		}
+		if (value instanceof Integer intValue) {
+			return ByteBuffer.allocate(5).put(INTEGER_TAG).putInt(intValue).array();
+		}
+		if (value instanceof String string) {
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			return ByteBuffer.allocate(1 + bytes.length).put(STRING_TAG).put(bytes).array();
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		bytes.write(SERIALIZED_TAG);
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(value);
+		}
+		catch (IOException e) {
+			throw new CacheException("Could not serialize " + value.getClass().getName() + " for the off-heap cache", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	static Object decode(byte[] bytes) {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+		return switch (bytes[0]) {
+			case UUID_TAG -> new UUID(buffer.getLong(), buffer.getLong());
+			case LONG_TAG -> buffer.getLong();
+			case INTEGER_TAG -> buffer.getInt();
+			case STRING_TAG -> new String(bytes, 1, bytes.length - 1, StandardCharsets.UTF_8);
+			case SERIALIZED_TAG -> deserialize(bytes);
+			default -> throw new CacheException("Unknown off-heap cache entry tag " + bytes[0]);
+		};
+	}
+
+	private static Object deserialize(byte[] bytes) {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+			return in.readObject();
+		}
+		catch (IOException | ClassNotFoundException e) {
+			throw new CacheException("Could not deserialize an off-heap cache entry", e);
+		}
+	}
+}
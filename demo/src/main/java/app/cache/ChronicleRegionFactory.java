@@ -0,0 +1,214 @@
+package app.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.internal.SimpleCacheKeysFactory;
+import org.hibernate.cache.spi.CacheKeysFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import lombok.extern.slf4j.Slf4j;
+import net.openhft.chronicle.map.ChronicleMap;
+import net.openhft.chronicle.map.ChronicleMapBuilder;
+
+/**
+ * Second-level cache whose entity, collection and query result regions are off-heap Chronicle Maps: millions of cached
+ * entries are not objects the GC has to trace, a cache hit deserializes the entry from native memory.
+ * <p>
+ * Settings, read from the Hibernate properties, every one can be set for one region with the region name as suffix,
+ * {@code app.cache.chronicle.max_entries.app.entity.hibernate.postgres.AccessInfo} for instance:
+ * <ul>
+ * <li>{@value #MAX_ENTRIES}: entries kept per region before the eviction, see {@link ChronicleStorageAccess},
+ * default {@value #DEFAULT_MAX_ENTRIES},</li>
+ * <li>{@value #AVERAGE_VALUE_SIZE}: bytes of a serialized cache entry, used to size the map, default
+ * {@value #DEFAULT_AVERAGE_VALUE_SIZE},</li>
+ * <li>{@value #DIRECTORY}: when set, entity and collection regions are memory-mapped files in this directory and
+ * are still there after a restart. Only for data nobody else writes while the application is down, otherwise evict
+ * the regions at startup.</li>
+ * </ul>
+ * Query results are never persisted and the update timestamps stay on the heap, a few entries that must never be
+ * evicted: without the timestamp of a table, cached query results of that table would be taken as up-to-date.
+ * <p>
+ * Ids are the cache keys ({@link SimpleCacheKeysFactory}), every entity has its own region.
+ */
+@Slf4j
+public class ChronicleRegionFactory extends RegionFactoryTemplate {
+
+	public static final String MAX_ENTRIES = "app.cache.chronicle.max_entries";
+	public static final String AVERAGE_VALUE_SIZE = "app.cache.chronicle.average_value_size";
+	public static final String DIRECTORY = "app.cache.chronicle.directory";
+	public static final long DEFAULT_MAX_ENTRIES = 1_000_000;
+	public static final int DEFAULT_AVERAGE_VALUE_SIZE = 512;
+	private static final int AVERAGE_KEY_SIZE = 17; // a tagged UUID, see CacheCodec
+
+	private final List<ChronicleStorageAccess> storages = new CopyOnWriteArrayList<>();
+	private Map<String, Object> configValues;
+	private File directory;
+
+	/**
+	 * The region factory of a session factory configured with this class.
+	 */
+	public static ChronicleRegionFactory of(SessionFactory sessionFactory) {
+		return find(sessionFactory).orElseThrow(() -> new IllegalStateException("The second-level cache is not configured with "
+				+ ChronicleRegionFactory.class.getName() + " but " + regionFactory(sessionFactory).getClass().getName()));
+	}
+
+	/**
+	 * The region factory of a session factory configured with this class, empty when the second-level cache is
+	 * disabled or uses another region factory.
+	 */
+	public static Optional<ChronicleRegionFactory> find(SessionFactory sessionFactory) {
+		return regionFactory(sessionFactory) instanceof ChronicleRegionFactory chronicleRegionFactory
+				? Optional.of(chronicleRegionFactory)
+				: Optional.empty();
+	}
+
+	private static RegionFactory regionFactory(SessionFactory sessionFactory) {
+		return sessionFactory.unwrap(SessionFactoryImplementor.class).getCache().getRegionFactory();
+	}
+
+	/**
+	 * Metrics of every off-heap region, by region name.
+	 */
+	public Map<String, RegionMetrics.Snapshot> metrics() {
+		Map<String, RegionMetrics.Snapshot> metrics = new TreeMap<>();
+		storages.forEach(storage -> {
+			RegionMetrics.Snapshot snapshot = storage.metrics();
+			metrics.put(snapshot.region(), snapshot);
+		});
+		return metrics;
+	}
+
+	public void resetMetrics() {
+		storages.forEach(ChronicleStorageAccess::resetMetrics);
+	}
+
+	@Override
+	protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+		this.configValues = configValues;
+		Object directorySetting = configValues.get(DIRECTORY);
+		if (directorySetting != null && !directorySetting.toString().isBlank()) {
+			directory = new File(directorySetting.toString());
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new CacheException("Could not create the cache directory " + directory);
+			}
+			log.info("Off-heap cache regions are persisted to {}", directory);
+		}
+	}
+
+	@Override
+	protected void releaseFromUse() {
+		storages.forEach(ChronicleStorageAccess::release);
+		storages.clear();
+	}
+
+	@Override
+	protected CacheKeysFactory getImplicitCacheKeysFactory() {
+		return SimpleCacheKeysFactory.INSTANCE;
+	}
+
+	@Override
+	protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+			DomainDataRegionBuildingContext buildingContext) {
+		return createStorage(regionConfig.getRegionName(), directory);
+	}
+
+	@Override
+	protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+		return createStorage(qualify(regionName), null);
+	}
+
+	@Override
+	protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+		return new HeapStorageAccess();
+	}
+
+	private ChronicleStorageAccess createStorage(String regionName, File persistenceDirectory) {
+		long maxEntries = setting(MAX_ENTRIES, regionName, DEFAULT_MAX_ENTRIES);
+		long averageValueSize = setting(AVERAGE_VALUE_SIZE, regionName, DEFAULT_AVERAGE_VALUE_SIZE);
+		ChronicleMapBuilder<byte[], byte[]> builder = ChronicleMapBuilder.of(byte[].class, byte[].class)
+				.name(regionName)
+				// headroom for the puts that go on while one thread evicts
+				.entries((long) (maxEntries * (1 + ChronicleStorageAccess.EVICTION_FRACTION)))
+				.averageKeySize(AVERAGE_KEY_SIZE)
+				.averageValueSize(averageValueSize)
+				.maxBloatFactor(2);
+		ChronicleMap<byte[], byte[]> map;
+		if (persistenceDirectory == null) {
+			map = builder.create();
+		}
+		else {
+			File file = new File(persistenceDirectory, regionName.replaceAll("[^A-Za-z0-9._-]", "_") + ".cm3");
+			boolean warm = file.exists();
+			try {
+				map = builder.createPersistedTo(file);
+			}
+			catch (IOException e) {
+				throw new CacheException("Could not map the cache region " + regionName + " to " + file, e);
+			}
+			log.info("Cache region {} mapped to {}, {} with {} entries", regionName, file, warm ? "warm" : "cold",
+					map.longSize());
+		}
+		ChronicleStorageAccess storage = new ChronicleStorageAccess(regionName, map, maxEntries);
+		storages.add(storage);
+		return storage;
+	}
+
+	private long setting(String name, String regionName, long defaultValue) {
+		Object value = configValues.getOrDefault(name + "." + regionName, configValues.get(name));
+		return value == null ? defaultValue : Long.parseLong(value.toString());
+	}
+
+	/**
+	 * Update timestamps, one entry per table.
+	 */
+	private static final class HeapStorageAccess implements StorageAccess {
+		private final Map<Object, Object> map = new ConcurrentHashMap<>();
+
+		@Override
+		public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+			return map.get(key);
+		}
+
+		@Override
+		public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+			map.put(key, value);
+		}
+
+		@Override
+		public boolean contains(Object key) {
+			return map.containsKey(key);
+		}
+
+		@Override
+		public void evictData() {
+			map.clear();
+		}
+
+		@Override
+		public void evictData(Object key) {
+			map.remove(key);
+		}
+
+		@Override
+		public void release() {
+			map.clear();
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package app.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import lombok.extern.slf4j.Slf4j;
+import net.openhft.chronicle.map.ChronicleMap;
+
+/**
+ * One cache region in one Chronicle Map: keys and values are stored off-heap as bytes, see {@link CacheCodec}, a
+ * cached entity costs the heap nothing until it is read.
+ * <p>
+ * Chronicle Map has a fixed capacity and no eviction of its own. When the region holds {@code maxEntries}, the next
+ * put first removes {@link #EVICTION_FRACTION} of them, in the order of the map iteration which is the hash order:
+ * a random eviction, that needs no bookkeeping on reads, so a hit stays a plain lookup. One thread evicts at a time,
+ * the others keep putting in the headroom the map was created with.
+ */
+@Slf4j
+class ChronicleStorageAccess implements DomainDataStorageAccess {
+
+	static final double EVICTION_FRACTION = 0.1;
+
+	private final String regionName;
+	private final ChronicleMap<byte[], byte[]> map;
+	private final long maxEntries;
+	private final RegionMetrics metrics = new RegionMetrics();
+	private final AtomicBoolean evicting = new AtomicBoolean();
+
+	ChronicleStorageAccess(String regionName, ChronicleMap<byte[], byte[]> map, long maxEntries) {
+		this.regionName = regionName;
+		this.map = map;
+		this.maxEntries = maxEntries;
+	}
+
+	@Override
+	public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+		byte[] value = map.get(CacheCodec.encode(key));
+		if (value == null) {
+			metrics.miss();
+			return null;
+		}
+		metrics.hit();
+		return CacheCodec.decode(value);
+	}
+
+	@Override
+	public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+		if (map.longSize() >= maxEntries) {
+			evict();
+		}
+		map.put(CacheCodec.encode(key), CacheCodec.encode(value));
+		metrics.put();
+	}
+
+	@Override
+	public boolean contains(Object key) {
+		return map.containsKey(CacheCodec.encode(key));
+	}
+
+	@Override
+	public void evictData() {
+		map.clear();
+	}
+
+	@Override
+	public void evictData(Object key) {
+		map.remove(CacheCodec.encode(key));
+	}
+
+	@Override
+	public void release() {
+		if (!map.isClosed()) {
+			log.info("Closing cache region {}: {}", regionName, metrics());
+			map.close();
+		}
+	}
+
+	RegionMetrics.Snapshot metrics() {
+		return map.isClosed()
+				? metrics.snapshot(regionName, 0, 0)
+				: metrics.snapshot(regionName, map.longSize(), map.offHeapMemoryUsed());
+	}
+
+	void resetMetrics() {
+		metrics.reset();
+	}
+
+	private void evict() {
+		if (!evicting.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			int toEvict = (int) Math.max(1, maxEntries * EVICTION_FRACTION);
+			// the keys are collected first, removing while iterating would move entries under the iterator
+			List<byte[]> keys = new ArrayList<>(toEvict);
+			Iterator<byte[]> iterator = map.keySet().iterator();
+			while (keys.size() < toEvict && iterator.hasNext()) {
+				keys.add(iterator.next());
+			}
+			keys.forEach(map::remove);
+			metrics.evicted(keys.size());
+		}
+		finally {
+			evicting.set(false);
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package app.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit, miss, put and eviction counters of one cache region, updated without locks by the storage.
+ */
+public class RegionMetrics {
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder puts = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public record Snapshot(String region, long hits, long misses, long puts, long evictions, long entries,
+			long offHeapBytes) {
+
+		public double hitRatio() {
+			long lookups = hits + misses;
+			return lookups == 0 ? 0.0 : (double) hits / lookups;
+		}
+	}
+
+	void hit() {
+		hits.increment();
+	}
+
+	void miss() {
+		misses.increment();
+	}
+
+	void put() {
+		puts.increment();
+	}
+
+	void evicted(long count) {
+		evictions.add(count);
+	}
+
+	Snapshot snapshot(String region, long entries, long offHeapBytes) {
+		return new Snapshot(region, hits.sum(), misses.sum(), puts.sum(), evictions.sum(), entries, offHeapBytes);
+	}
+
+	void reset() {
+		hits.reset();
+		misses.reset();
+		puts.reset();
+		evictions.reset();
+	}
+}
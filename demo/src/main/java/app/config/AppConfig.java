@@ -1,9 +1,14 @@
 package app.config;
 
+import app.BinaryCopyExample;
 import app.HibernateBatchingExample;
 import app.NativeJdbcBatchingExample;
 import app.ReactiveStreamProcessingExamples;
+import app.SecondLevelCacheExample;
 import app.SimpleStreamProcessingExamples;
+import app.copy.BinaryCopyBulkLoader;
+import app.copy.BulkUpserter;
+import app.copy.ParallelCopyLoader;
 import org.hibernate.SessionFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -28,6 +33,32 @@ public class AppConfig {
 	}
 
 
+	@Bean
+	public BinaryCopyBulkLoader binaryCopyBulkLoader(SessionFactory sessionFactory) {
+		return new BinaryCopyBulkLoader(sessionFactory);
+	}
+
+	@Bean
+	public ParallelCopyLoader parallelCopyLoader(SessionFactory sessionFactory, BinaryCopyBulkLoader binaryCopyBulkLoader) {
+		return new ParallelCopyLoader(sessionFactory, binaryCopyBulkLoader);
+	}
+
+	@Bean
+	public BulkUpserter bulkUpserter(SessionFactory sessionFactory, BinaryCopyBulkLoader binaryCopyBulkLoader) {
+		return new BulkUpserter(sessionFactory, binaryCopyBulkLoader);
+	}
+
+	@Bean
+	public BinaryCopyExample binaryCopyExample(SessionFactory sessionFactory, BinaryCopyBulkLoader binaryCopyBulkLoader,
+			ParallelCopyLoader parallelCopyLoader, BulkUpserter bulkUpserter) {
+		return new BinaryCopyExample(sessionFactory, binaryCopyBulkLoader, parallelCopyLoader, bulkUpserter);
+	}
+
+	@Bean
+	public SecondLevelCacheExample secondLevelCacheExample(SessionFactory sessionFactory) {
+		return new SecondLevelCacheExample(sessionFactory);
+	}
+
 	@Bean
 	public NativeJdbcBatchingExample nativeJdbcBatchingExample() {
 		return new NativeJdbcBatchingExample();
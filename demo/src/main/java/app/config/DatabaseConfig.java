@@ -13,6 +13,11 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.orm.hibernate5.HibernateTransactionManager;
 import org.springframework.orm.hibernate5.LocalSessionFactoryBean;
 
+import app.cache.ChronicleRegionFactory;
+import app.jfr.JfrJdbcListener;
+import app.jfr.JfrSessionEventListener;
+import app.metrics.QueryMetricsListener;
+import app.metrics.SampledStatistics;
 import net.ttddyy.dsproxy.listener.logging.SLF4JLogLevel;
 import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
 
@@ -22,8 +27,18 @@ import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
 @Configuration
 public class DatabaseConfig {
 
+	/**
+	 * Set {@code -Dapp.datasource.logQueries=true} to see every round trip in the logs, on top of the metrics.
+	 */
+	private static final boolean LOG_QUERIES = Boolean.getBoolean("app.datasource.logQueries");
+
+	@Bean
+	public QueryMetricsListener queryMetricsListener() {
+		return QueryMetricsListener.withDefaults();
+	}
+
 	@Bean
-	public DataSource dataSource() {
+	public DataSource dataSource(QueryMetricsListener queryMetricsListener) {
 
 		// Here we use a connection pool from tomcat..you can choose Hikari or
 		org.apache.tomcat.jdbc.pool.DataSource dataSource = new org.apache.tomcat.jdbc.pool.DataSource();
@@ -37,14 +52,18 @@ public class DatabaseConfig {
 		dataSource.setDefaultAutoCommit(false);
 
 		dataSource.setConnectionProperties("reWriteBatchedInserts=true");
-		Formatter formatter = FormatStyle.BASIC.getFormatter();
-		// Create ProxyDataSource, overhead is mainly around logs. Can be improved on log4j side.
-		return ProxyDataSourceBuilder
+		// Create ProxyDataSource, the listener only records metrics, formatting and logging every query is the costly part
+		ProxyDataSourceBuilder builder = ProxyDataSourceBuilder
 				.create(dataSource)
-				.formatQuery(formatter::format)
-				.multiline()
-				.logQueryBySlf4j(SLF4JLogLevel.INFO)
-				.build();
+				.listener(queryMetricsListener)
+				.listener(new JfrJdbcListener());
+		if (LOG_QUERIES) {
+			Formatter formatter = FormatStyle.BASIC.getFormatter();
+			builder.formatQuery(formatter::format)
+					.multiline()
+					.logQueryBySlf4j(SLF4JLogLevel.INFO);
+		}
+		return builder.build();
 
 	}
 
@@ -70,10 +89,20 @@ public class DatabaseConfig {
 		properties.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
 		properties.put("hibernate.hbm2ddl.auto", "update"); //Not recommended for prod!! just for demo purpose
 		//properties.put("hibernate.jdbc.batch_size", "10"); You can enable global batch size here, by default, it's disabled
-		//This is to enable hibernate statistics generation. Note that, this will also enable StatisticalLoggingSessionEventListener logging,
-		// which is sometimes annoying.
-		// <Logger name="org.hibernate.engine.internal.StatisticalLoggingSessionEventListener" level="OFF" additivity="false"/>
-		properties.put("hibernate.generate_statistics", "true");
+		// Statistics are off by default and switched at runtime through SampledStatistics.of(sessionFactory), with
+		// -Dapp.hibernate.statistics=true to start with them. Without the session events log, no per session log spam.
+		properties.put("hibernate.stats.factory", SampledStatistics.Factory.class.getName());
+		properties.put("hibernate.generate_statistics", String.valueOf(Boolean.getBoolean("app.hibernate.statistics")));
+		properties.put("hibernate.session.events.log", "false");
+		// One JFR event per session, see app.jfr for the other events of a recording
+		properties.put("hibernate.session.events.auto", JfrSessionEventListener.class.getName());
+		// With -Dapp.hibernate.cache=true, entities annotated with @Cache are cached off-heap, which needs the Chronicle
+		// JVM arguments of the demo pom. -Dapp.cache.chronicle.directory=... keeps them across restarts.
+		properties.put("hibernate.cache.use_second_level_cache", String.valueOf(Boolean.getBoolean("app.hibernate.cache")));
+		properties.put("hibernate.cache.region.factory_class", ChronicleRegionFactory.class.getName());
+		properties.put(ChronicleRegionFactory.MAX_ENTRIES,
+				System.getProperty(ChronicleRegionFactory.MAX_ENTRIES, String.valueOf(ChronicleRegionFactory.DEFAULT_MAX_ENTRIES)));
+		properties.put(ChronicleRegionFactory.DIRECTORY, System.getProperty(ChronicleRegionFactory.DIRECTORY, ""));
 		return properties;
 	}
 
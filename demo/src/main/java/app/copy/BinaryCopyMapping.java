@@ -0,0 +1,128 @@
+package app.copy;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.mapping.BasicValuedModelPart;
+import org.hibernate.metamodel.mapping.EntityIdentifierMapping;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Table name, column list and per-column binary encoders of an entity, read once from the Hibernate metamodel.
+ * Only single-table entities with basic attributes (int, long, UUID, String, BigDecimal) are supported.
+ */
+public class BinaryCopyMapping<T> {
+
+	private final String tableName;
+	private final List<String> columnNames;
+	private final List<CopyColumn> columns;
+
+	private BinaryCopyMapping(String tableName, List<String> columnNames, List<CopyColumn> columns) {
+		this.tableName = tableName;
+		this.columnNames = columnNames;
+		this.columns = columns;
+	}
+
+	public static <T> BinaryCopyMapping<T> of(SessionFactory sessionFactory, Class<T> entityClass) {
+		EntityPersister persister = sessionFactory.unwrap(SessionFactoryImplementor.class)
+				.getMappingMetamodel()
+				.getEntityDescriptor(entityClass);
+		List<String> columnNames = new ArrayList<>();
+		List<CopyColumn> columns = new ArrayList<>();
+
+		EntityIdentifierMapping identifierMapping = persister.getIdentifierMapping();
+		BasicValuedModelPart identifier = identifierMapping.asBasicValuedModelPart();
+		if (identifier == null) {
+			throw new IllegalArgumentException("Composite identifiers are not supported for " + entityClass.getName());
+		}
+		columnNames.add(identifier.getSelectionExpression());
+		columns.add(new CopyColumn(identifierMapping::getIdentifier, encoderFor(identifier)));
+
+		persister.forEachAttributeMapping(attributeMapping -> {
+			BasicValuedModelPart basicPart = attributeMapping.asBasicValuedModelPart();
+			if (basicPart == null || !basicPart.isInsertable()) {
+				throw new IllegalArgumentException("Attribute " + attributeMapping.getAttributeName() + " of "
+						+ entityClass.getName() + " cannot be copied in binary format");
+			}
+			columnNames.add(basicPart.getSelectionExpression());
+			columns.add(new CopyColumn(attributeMapping.getPropertyAccess().getGetter()::get, encoderFor(basicPart)));
+		});
+		return new BinaryCopyMapping<>(persister.getIdentifierTableDetails().getTableName(), List.copyOf(columnNames),
+				List.copyOf(columns));
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * The identifier column first, then the attribute columns, in the order the rows are encoded.
+	 */
+	public List<String> getColumnNames() {
+		return columnNames;
+	}
+
+	public String getIdColumnName() {
+		return columnNames.get(0);
+	}
+
+	public String copySql() {
+		return copySql(tableName);
+	}
+
+	/**
+	 * COPY of the same columns into another table, a staging table with the same columns for instance.
+	 */
+	public String copySql(String targetTable) {
+		return columnNames.stream()
+				.collect(Collectors.joining(", ", "COPY " + targetTable + " (", ") FROM STDIN (FORMAT binary)"));
+	}
+
+	public void encode(T entity, PgBinaryCopyBuffer buffer) throws SQLException {
+		buffer.startRow(columns.size());
+		for (CopyColumn column : columns) {
+			Object value = column.accessor().apply(entity);
+			if (value == null) {
+				buffer.writeNull();
+			} else {
+				column.encoder().encode(value, buffer);
+			}
+		}
+	}
+
+	private static ColumnEncoder encoderFor(BasicValuedModelPart part) {
+		Class<?> javaType = part.getJavaType().getJavaTypeClass();
+		if (javaType == Integer.class || javaType == int.class) {
+			return (value, buffer) -> buffer.writeInt((Integer) value);
+		}
+		if (javaType == Long.class || javaType == long.class) {
+			return (value, buffer) -> buffer.writeLong((Long) value);
+		}
+		if (javaType == UUID.class) {
+			return (value, buffer) -> buffer.writeUuid((UUID) value);
+		}
+		if (javaType == String.class) {
+			return (value, buffer) -> buffer.writeText((String) value);
+		}
+		if (javaType == BigDecimal.class) {
+			return (value, buffer) -> buffer.writeNumeric((BigDecimal) value);
+		}
+		throw new IllegalArgumentException("No binary COPY encoder for " + javaType.getName()
+				+ " (column " + part.getSelectionExpression() + ")");
+	}
+
+	@FunctionalInterface
+	interface ColumnEncoder {
+		void encode(Object value, PgBinaryCopyBuffer buffer) throws SQLException;
+	}
+
+	private record CopyColumn(Function<Object, Object> accessor, ColumnEncoder encoder) {
+	}
+}
@@ -0,0 +1,112 @@
+package app.copy;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.SessionFactory;
+
+import app.util.ThroughputUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Inserts new rows and updates existing ones in two statements, whatever the number of rows:
+ * <ol>
+ * <li>binary COPY into a TEMP staging table with the columns of the target table,</li>
+ * <li>one {@code INSERT ... SELECT ... ON CONFLICT (id) DO UPDATE} from the staging table into the target table.</li>
+ * </ol>
+ * A TEMP table is private to the connection and written without WAL, like an UNLOGGED one, and does not need to be
+ * dropped: it is created once per pooled connection and emptied at every commit ({@code ON COMMIT DELETE ROWS}).
+ * <p>
+ * When the input has the same id more than once, the last one wins: {@code ON CONFLICT} can not update a row twice in
+ * the same statement, so the staged rows are reduced to one per id first. They are merged in id order, two upserts of
+ * overlapping ids lock the rows in the same order and can not deadlock. Rows equal to the existing ones are not updated,
+ * they would only produce dead tuples.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BulkUpserter {
+
+	private static final String STAGING_SUFFIX = "_upsert";
+	private static final String SEQUENCE_COLUMN = "upsert_seq";
+
+	public record UpsertResult(long staged, long inserted, long updated) {
+
+		/**
+		 * Staged rows that did not change anything: equal to the existing row, or replaced by a later row of the same id.
+		 */
+		public long unchanged() {
+			return staged - inserted - updated;
+		}
+	}
+
+	private final SessionFactory sessionFactory;
+	private final BinaryCopyBulkLoader loader;
+
+	/**
+	 * Upserts all entities in one transaction.
+	 */
+	public <T> UpsertResult upsert(Class<T> entityClass, Stream<? extends T> entities) {
+		BinaryCopyMapping<T> mapping = loader.mappingFor(entityClass);
+		long start = System.nanoTime();
+		UpsertResult result = sessionFactory.fromStatelessTransaction(session -> session.doReturningWork(
+				connection -> upsert(connection, mapping, entities.iterator())));
+		ThroughputUtil.logThroughput("Staged upsert into " + mapping.getTableName() + " (" + result.inserted()
+				+ " inserted, " + result.updated() + " updated)", result.staged(), start);
+		return result;
+	}
+
+	/**
+	 * Stages and merges the entities on the given connection. Transaction handling is left to the caller, but it must
+	 * not be in auto-commit: the staged rows would be deleted right after the COPY.
+	 */
+	public static <T> UpsertResult upsert(Connection connection, BinaryCopyMapping<T> mapping, Iterator<? extends T> entities)
+			throws SQLException {
+		String staging = mapping.getTableName() + STAGING_SUFFIX;
+		try (Statement statement = connection.createStatement()) {
+			statement.execute(createStagingSql(mapping, staging));
+			long staged = BinaryCopyBulkLoader.copyIn(connection, mapping.copySql(staging), mapping, entities);
+			try (ResultSet resultSet = statement.executeQuery(mergeSql(mapping, staging))) {
+				resultSet.next();
+				return new UpsertResult(staged, resultSet.getLong(1), resultSet.getLong(2));
+			}
+		}
+	}
+
+	static String createStagingSql(BinaryCopyMapping<?> mapping, String staging) {
+		// the sequence column is filled by the COPY, in input order, and tells which duplicate came last
+		return "CREATE TEMP TABLE IF NOT EXISTS " + staging + " (LIKE " + mapping.getTableName() + ", "
+				+ SEQUENCE_COLUMN + " bigint GENERATED ALWAYS AS IDENTITY) ON COMMIT DELETE ROWS";
+	}
+
+	/**
+	 * {@code xmax} of a row version written by an INSERT is 0, by the UPDATE of ON CONFLICT it is the current
+	 * transaction, that is how the RETURNING clause tells inserted and updated rows apart.
+	 */
+	static String mergeSql(BinaryCopyMapping<?> mapping, String staging) {
+		String id = mapping.getIdColumnName();
+		List<String> columns = mapping.getColumnNames();
+		List<String> updated = columns.subList(1, columns.size());
+		String columnList = String.join(", ", columns);
+		String onConflict = updated.isEmpty()
+				? "DO NOTHING"
+				: "DO UPDATE SET " + updated.stream().map(column -> column + " = EXCLUDED." + column).collect(Collectors.joining(", "))
+				+ " WHERE (" + updated.stream().map(column -> "target." + column).collect(Collectors.joining(", "))
+				+ ") IS DISTINCT FROM (" + updated.stream().map(column -> "EXCLUDED." + column).collect(Collectors.joining(", ")) + ")";
+		return """
+				WITH merged AS (
+				  INSERT INTO %1$s AS target (%2$s)
+				  SELECT DISTINCT ON (%3$s) %2$s FROM %4$s ORDER BY %3$s, %5$s DESC
+				  ON CONFLICT (%3$s) %6$s
+				  RETURNING xmax = 0 AS inserted
+				)
+				SELECT count(*) FILTER (WHERE inserted), count(*) FILTER (WHERE NOT inserted) FROM merged
+				""".formatted(mapping.getTableName(), columnList, id, staging, SEQUENCE_COLUMN, onConflict);
+	}
+}
@@ -0,0 +1,366 @@
+package app.copy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import reactor.core.publisher.Flux;
+
+import app.util.ThroughputUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs N binary COPY sessions at the same time, every shard on its own connection and in its own transaction.
+ * <p>
+ * A single COPY is bound by one backend process and one encoding thread, with N shards both scale with the cores.
+ * The shards do not commit as soon as they are done: once every COPY has ended they all commit, and if one of
+ * them failed they all roll back. The rows are only visible when the whole load is.
+ * <p>
+ * With {@link #copyRanges range partitioning} shard i always covers the same range of the input, so a load whose
+ * commit phase failed half way (one commit refused, a connection lost) is resumed with {@link #resume}, which copies
+ * again the shards that did not commit. A {@link #copy(Class, Flux, int) Flux} is dealt round-robin to the shards,
+ * that split can not be replayed: such a load is all or nothing.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ParallelCopyLoader {
+
+	/**
+	 * Each shard logs its progress every this many rows.
+	 */
+	public static final long PROGRESS_ROWS = 100_000;
+	/**
+	 * Rows handed at once to a shard of a Flux, and chunks queued per shard before the Flux is paused.
+	 */
+	public static final int CHUNK_SIZE = 1024;
+	private static final int QUEUED_CHUNKS = 4;
+
+	/**
+	 * The rows of one range, opened by the shard thread: generate or read them lazily.
+	 */
+	@FunctionalInterface
+	public interface RangeSource<T> {
+		Stream<? extends T> open(long fromInclusive, long toExclusive);
+	}
+
+	public enum ShardState {
+		COMMITTED, ROLLED_BACK, FAILED
+	}
+
+	/**
+	 * {@code from} and {@code to} are -1 when the shard is a rail of a Flux.
+	 */
+	public record Shard(int index, long from, long to) {
+	}
+
+	public record ShardResult(Shard shard, ShardState state, long rows, long nanos, Throwable failure) {
+	}
+
+	public record LoadResult(String table, List<ShardResult> shards) {
+
+		public boolean committed() {
+			return shards.stream().allMatch(shard -> shard.state() == ShardState.COMMITTED);
+		}
+
+		public long rows() {
+			return shards.stream()
+					.filter(shard -> shard.state() == ShardState.COMMITTED)
+					.mapToLong(ShardResult::rows)
+					.sum();
+		}
+
+		/**
+		 * The shards to copy again, see {@link ParallelCopyLoader#resume}.
+		 */
+		public List<Shard> remaining() {
+			return shards.stream()
+					.filter(shard -> shard.state() != ShardState.COMMITTED)
+					.map(ShardResult::shard)
+					.toList();
+		}
+	}
+
+	private final SessionFactory sessionFactory;
+	private final BinaryCopyBulkLoader loader;
+
+	/**
+	 * Splits {@code [0, total)} in {@code shards} contiguous ranges and copies them concurrently.
+	 */
+	public <T> LoadResult copyRanges(Class<T> entityClass, long total, int shards, RangeSource<? extends T> source) {
+		long rangeSize = (total + shards - 1) / shards;
+		List<Shard> ranges = IntStream.range(0, shards)
+				.mapToObj(index -> new Shard(index, Math.min(total, index * rangeSize), Math.min(total, (index + 1) * rangeSize)))
+				.toList();
+		return copy(loader.mappingFor(entityClass), ranges, shard -> () -> source.open(shard.from(), shard.to()), new AtomicBoolean());
+	}
+
+	/**
+	 * Copies again the shards of a previous load that did not commit, with the same source.
+	 */
+	public <T> LoadResult resume(Class<T> entityClass, LoadResult previous, RangeSource<? extends T> source) {
+		List<Shard> remaining = previous.remaining();
+		if (remaining.stream().anyMatch(shard -> shard.from() < 0)) {
+			throw new IllegalArgumentException("Only a load of ranges can be resumed");
+		}
+		return copy(loader.mappingFor(entityClass), remaining, shard -> () -> source.open(shard.from(), shard.to()), new AtomicBoolean());
+	}
+
+	/**
+	 * Deals the entities round-robin to {@code shards} concurrent COPY sessions, in chunks of {@link #CHUNK_SIZE}.
+	 */
+	public <T> LoadResult copy(Class<T> entityClass, Flux<? extends T> entities, int shards) {
+		BinaryCopyMapping<T> mapping = loader.mappingFor(entityClass); // fails before there is a dispatcher to stop
+		AtomicBoolean aborted = new AtomicBoolean();
+		RoundRobinSplit<T> split = new RoundRobinSplit<>(shards, aborted);
+		Thread dispatcher = Thread.ofPlatform().name("copy-dispatcher").start(() -> split.dispatch(entities));
+		List<Shard> railShards = IntStream.range(0, shards).mapToObj(index -> new Shard(index, -1, -1)).toList();
+		try {
+			return copy(mapping, railShards, shard -> () -> split.stream(shard.index()), aborted);
+		}
+		catch (RuntimeException | Error e) {
+			// without readers the dispatcher would wait for room in a full queue forever
+			aborted.set(true);
+			throw e;
+		}
+		finally {
+			try {
+				dispatcher.join();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private <T> LoadResult copy(BinaryCopyMapping<T> mapping, List<Shard> shards,
+			Function<Shard, Supplier<Stream<? extends T>>> sources, AtomicBoolean aborted) {
+		CountDownLatch copied = new CountDownLatch(shards.size());
+		CompletableFuture<Boolean> commit = new CompletableFuture<>();
+		long start = System.nanoTime();
+		List<ShardResult> results;
+		try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, shards.size()),
+				Thread.ofPlatform().name("copy-shard-", 0).factory())) {
+			List<CompletableFuture<ShardResult>> futures = new ArrayList<>(shards.size());
+			for (Shard shard : shards) {
+				ShardCopy<T> shardCopy = new ShardCopy<>(shard, shards.size(), mapping, sources.apply(shard), copied, commit, aborted);
+				futures.add(CompletableFuture.supplyAsync(shardCopy::run, executor));
+			}
+			copied.await();
+			commit.complete(!aborted.get());
+			results = futures.stream().map(CompletableFuture::join).toList();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			aborted.set(true);
+			commit.complete(false);
+			throw new IllegalStateException("Interrupted while waiting for the COPY shards", e);
+		}
+		LoadResult result = new LoadResult(mapping.getTableName(), results);
+		if (result.committed()) {
+			ThroughputUtil.logThroughput("Parallel binary COPY into " + result.table() + ", " + shards.size() + " shards",
+					result.rows(), start);
+		}
+		else {
+			log.warn("Parallel binary COPY into {} did not commit, shards to copy again: {}", result.table(), result.remaining());
+		}
+		return result;
+	}
+
+	/**
+	 * One shard: COPY in its own transaction, then wait for the others and commit or roll back with them.
+	 */
+	@RequiredArgsConstructor
+	private final class ShardCopy<T> {
+		private final Shard shard;
+		private final int shards;
+		private final BinaryCopyMapping<T> mapping;
+		private final Supplier<Stream<? extends T>> source;
+		private final CountDownLatch copied;
+		private final CompletableFuture<Boolean> commit;
+		private final AtomicBoolean aborted;
+
+		ShardResult run() {
+			long start = System.nanoTime();
+			long rows = 0;
+			boolean counted = false;
+			try (Stream<? extends T> entities = source.get();
+					StatelessSession session = sessionFactory.openStatelessSession()) {
+				Transaction transaction = session.beginTransaction();
+				try {
+					Progress<? extends T> progress = new Progress<>(entities.iterator());
+					rows = session.doReturningWork(connection -> BinaryCopyBulkLoader.copyIn(connection, mapping, progress));
+					log.info("{} shard {}/{} copied {} rows, waiting for the other shards", mapping.getTableName(),
+							shard.index() + 1, shards, rows);
+				}
+				catch (RuntimeException e) {
+					aborted.set(true);
+					copied.countDown();
+					counted = true;
+					transaction.rollback();
+					return failed(e, rows, start);
+				}
+				copied.countDown();
+				counted = true;
+				if (!commit.join()) {
+					transaction.rollback();
+					return new ShardResult(shard, ShardState.ROLLED_BACK, rows, System.nanoTime() - start, null);
+				}
+				transaction.commit();
+				return new ShardResult(shard, ShardState.COMMITTED, rows, System.nanoTime() - start, null);
+			}
+			catch (RuntimeException e) {
+				// the session could not be opened, or the commit itself failed
+				aborted.set(true);
+				if (!counted) {
+					copied.countDown();
+				}
+				return failed(e, rows, start);
+			}
+		}
+
+		private ShardResult failed(RuntimeException e, long rows, long start) {
+			log.error("{} shard {}/{} failed", mapping.getTableName(), shard.index() + 1, shards, e);
+			return new ShardResult(shard, ShardState.FAILED, rows, System.nanoTime() - start, e);
+		}
+
+		/**
+		 * Logs the rows written by the shard and ends its COPY early when another shard has failed.
+		 */
+		@RequiredArgsConstructor
+		private final class Progress<E> implements Iterator<E> {
+			private final Iterator<E> delegate;
+			private long rows;
+
+			@Override
+			public boolean hasNext() {
+				if (aborted.get()) {
+					throw new IllegalStateException("Another shard failed, COPY cancelled");
+				}
+				return delegate.hasNext();
+			}
+
+			@Override
+			public E next() {
+				if (++rows % PROGRESS_ROWS == 0) {
+					log.info("{} shard {}/{}: {} rows", mapping.getTableName(), shard.index() + 1, shards, rows);
+				}
+				return delegate.next();
+			}
+		}
+	}
+
+	/**
+	 * Reads the Flux on the dispatcher thread and puts its chunks in one bounded queue per shard, in turn.
+	 * A full queue pauses the Flux, so a slow shard slows down the whole load instead of buffering it on the heap.
+	 */
+	private static final class RoundRobinSplit<T> {
+		private static final List<Object> END = new ArrayList<>(0);
+
+		private final List<BlockingQueue<List<?>>> queues;
+		private final AtomicBoolean aborted;
+
+		RoundRobinSplit(int shards, AtomicBoolean aborted) {
+			this.queues = IntStream.range(0, shards)
+					.<BlockingQueue<List<?>>>mapToObj(shard -> new ArrayBlockingQueue<>(QUEUED_CHUNKS))
+					.toList();
+			this.aborted = aborted;
+		}
+
+		void dispatch(Flux<? extends T> entities) {
+			try (Stream<? extends List<? extends T>> chunks = entities.buffer(CHUNK_SIZE).toStream(QUEUED_CHUNKS)) {
+				Iterator<? extends List<? extends T>> iterator = chunks.iterator();
+				int next = 0;
+				while (iterator.hasNext() && put(next, iterator.next())) {
+					next = (next + 1) % queues.size();
+				}
+			}
+			catch (RuntimeException e) {
+				aborted.set(true);
+				log.error("Reading the entities to copy failed", e);
+			}
+			finally {
+				for (int shard = 0; shard < queues.size(); shard++) {
+					put(shard, END);
+				}
+			}
+		}
+
+		/**
+		 * @return false when the load was aborted, the shard may not take from its queue anymore
+		 */
+		private boolean put(int shard, List<?> chunk) {
+			try {
+				while (!queues.get(shard).offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+					if (aborted.get()) {
+						return false;
+					}
+				}
+				return true;
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				aborted.set(true);
+				return false;
+			}
+		}
+
+		Stream<T> stream(int shard) {
+			BlockingQueue<List<?>> queue = queues.get(shard);
+			Iterator<T> iterator = new Iterator<>() {
+				private Iterator<?> chunk = Collections.emptyIterator();
+				private boolean ended;
+
+				@Override
+				public boolean hasNext() {
+					while (!chunk.hasNext() && !ended) {
+						List<?> next = take(queue);
+						ended = next == END;
+						chunk = next.iterator();
+					}
+					return chunk.hasNext();
+				}
+
+				@Override
+				@SuppressWarnings("unchecked")
+				public T next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return (T) chunk.next();
+				}
+			};
+			return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+		}
+
+		private List<?> take(BlockingQueue<List<?>> queue) {
+			try {
+				return queue.take();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for entities to copy", e);
+			}
+		}
+	}
+}
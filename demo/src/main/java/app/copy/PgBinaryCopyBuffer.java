@@ -0,0 +1,216 @@
+package app.copy;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Encodes rows in the PostgreSQL <a href="https://www.postgresql.org/docs/current/sql-copy.html#id-1.9.3.55.9.4">binary COPY format</a>
+ * straight into one reusable byte array. When the array is full it is handed to {@link CopyIn#writeToCopy} and reused,
+ * so no per-row String/byte[] is created on the way to the driver.
+ */
+public class PgBinaryCopyBuffer {
+
+	private static final byte[] HEADER = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0,
+			0, 0, 0, 0, // flags
+			0, 0, 0, 0  // header extension length
+	};
+	private static final short NUMERIC_POS = 0x0000;
+	private static final short NUMERIC_NEG = 0x4000;
+	private static final int NBASE = 10_000;
+	private static final BigInteger BIG_NBASE = BigInteger.valueOf(NBASE);
+	private static final long[] POW10 = {1, 10, 100, 1000};
+
+	private final CopyIn copyIn;
+	private byte[] buffer;
+	private int position;
+	// base-10000 digits of the numeric being encoded, least significant first
+	private short[] numericDigits = new short[8];
+
+	public PgBinaryCopyBuffer(CopyIn copyIn, int bufferSize) {
+		this.copyIn = copyIn;
+		this.buffer = new byte[bufferSize];
+	}
+
+	public void writeHeader() throws SQLException {
+		ensureCapacity(HEADER.length);
+		System.arraycopy(HEADER, 0, buffer, position, HEADER.length);
+		position += HEADER.length;
+	}
+
+	public void startRow(int fieldCount) throws SQLException {
+		ensureCapacity(2);
+		putShort(fieldCount);
+	}
+
+	public void writeNull() throws SQLException {
+		ensureCapacity(4);
+		putInt(-1);
+	}
+
+	public void writeInt(int value) throws SQLException {
+		ensureCapacity(8);
+		putInt(4);
+		putInt(value);
+	}
+
+	public void writeLong(long value) throws SQLException {
+		ensureCapacity(12);
+		putInt(8);
+		putLong(value);
+	}
+
+	public void writeUuid(UUID value) throws SQLException {
+		ensureCapacity(20);
+		putInt(16);
+		putLong(value.getMostSignificantBits());
+		putLong(value.getLeastSignificantBits());
+	}
+
+	/**
+	 * Writes a text/varchar value, UTF-8 encoding the characters directly into the buffer.
+	 */
+	public void writeText(CharSequence value) throws SQLException {
+		int length = value.length();
+		// worst case is 3 bytes per UTF-16 char, surrogate pairs take 4 bytes for 2 chars
+		ensureCapacity(4 + length * 3);
+		int lengthPosition = position;
+		position += 4;
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				buffer[position++] = (byte) c;
+			} else if (c < 0x800) {
+				buffer[position++] = (byte) (0xC0 | c >> 6);
+				buffer[position++] = (byte) (0x80 | c & 0x3F);
+			} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+				buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+				buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+				buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+			} else {
+				buffer[position++] = (byte) (0xE0 | c >> 12);
+				buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+				buffer[position++] = (byte) (0x80 | c & 0x3F);
+			}
+		}
+		int byteLength = position - lengthPosition - 4;
+		buffer[lengthPosition] = (byte) (byteLength >>> 24);
+		buffer[lengthPosition + 1] = (byte) (byteLength >>> 16);
+		buffer[lengthPosition + 2] = (byte) (byteLength >>> 8);
+		buffer[lengthPosition + 3] = (byte) byteLength;
+	}
+
+	/**
+	 * Writes a numeric in its binary form (ndigits, weight, sign, dscale, base-10000 digits) without going through
+	 * {@link BigDecimal#toString()}. Values with up to 14 significant digits are converted with long arithmetic only.
+	 */
+	public void writeNumeric(BigDecimal value) throws SQLException {
+		if (value.scale() < 0) {
+			value = value.setScale(0);
+		}
+		int scale = value.scale();
+		// pad the fraction so that it is a whole number of base-10000 digits
+		int pad = (4 - scale % 4) % 4;
+		int fractionDigits = (scale + pad) / 4;
+		int count = value.precision() <= 14
+				? splitDigits(Math.abs(value.unscaledValue().longValue()) * POW10[pad])
+				: splitDigits(value.unscaledValue().abs().multiply(BigInteger.TEN.pow(pad)));
+
+		int lowest = 0;
+		while (lowest < count && numericDigits[lowest] == 0) {
+			lowest++; // trailing zeros are implied by dscale
+		}
+		int highest = count - 1;
+		while (highest >= lowest && numericDigits[highest] == 0) {
+			highest--;
+		}
+		int ndigits = highest < lowest ? 0 : highest - lowest + 1;
+		int weight = ndigits == 0 ? 0 : highest - fractionDigits;
+
+		ensureCapacity(12 + ndigits * 2);
+		putInt(8 + ndigits * 2);
+		putShort(ndigits);
+		putShort(weight);
+		putShort(value.signum() < 0 ? NUMERIC_NEG : NUMERIC_POS);
+		putShort(scale);
+		for (int i = highest; i >= lowest; i--) {
+			putShort(numericDigits[i]);
+		}
+	}
+
+	public void writeTrailer() throws SQLException {
+		ensureCapacity(2);
+		putShort(-1);
+	}
+
+	/**
+	 * Hands the buffered bytes to the driver. The buffer can be reused right after.
+	 */
+	public void flush() throws SQLException {
+		if (position > 0) {
+			copyIn.writeToCopy(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	private void ensureCapacity(int bytes) throws SQLException {
+		if (position + bytes <= buffer.length) {
+			return;
+		}
+		flush();
+		if (bytes > buffer.length) {
+			buffer = new byte[Math.max(bytes, buffer.length * 2)];
+		}
+	}
+
+	private int splitDigits(long unscaled) {
+		int count = 0;
+		while (unscaled != 0) {
+			growDigits(count);
+			numericDigits[count++] = (short) (unscaled % NBASE);
+			unscaled /= NBASE;
+		}
+		return count;
+	}
+
+	private int splitDigits(BigInteger unscaled) {
+		int count = 0;
+		while (unscaled.signum() != 0) {
+			BigInteger[] divRem = unscaled.divideAndRemainder(BIG_NBASE);
+			growDigits(count);
+			numericDigits[count++] = divRem[1].shortValue();
+			unscaled = divRem[0];
+		}
+		return count;
+	}
+
+	private void growDigits(int index) {
+		if (index == numericDigits.length) {
+			short[] grown = new short[numericDigits.length * 2];
+			System.arraycopy(numericDigits, 0, grown, 0, numericDigits.length);
+			numericDigits = grown;
+		}
+	}
+
+	private void putShort(int value) {
+		buffer[position++] = (byte) (value >>> 8);
+		buffer[position++] = (byte) value;
+	}
+
+	private void putInt(int value) {
+		buffer[position++] = (byte) (value >>> 24);
+		buffer[position++] = (byte) (value >>> 16);
+		buffer[position++] = (byte) (value >>> 8);
+		buffer[position++] = (byte) value;
+	}
+
+	private void putLong(long value) {
+		putInt((int) (value >>> 32));
+		putInt((int) value);
+	}
+}
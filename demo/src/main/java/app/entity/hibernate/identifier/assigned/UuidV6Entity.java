@@ -1,12 +1,15 @@
 package app.entity.hibernate.identifier.assigned;
 
 import com.github.f4b6a3.uuid.UuidCreator;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 import java.util.UUID;
@@ -22,6 +25,8 @@ import java.util.UUID;
 @NoArgsConstructor
 @Entity
 @Table(name = "UUID_V6_ENTITY")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class UuidV6Entity implements Serializable {
 	@Id
 	private UUID id;
@@ -8,6 +8,7 @@ import lombok.Setter;
 
 /**
  * Batch size has no impact for the performance for this generation type, as identity disables batching
+ * See MultiRowIdentityInserter for a way to insert several rows per round trip and still get the ids back.
  */
 @Getter
 @Setter
@@ -0,0 +1,30 @@
+package app.entity.hibernate.identifier.generated;
+
+import app.entity.hibernate.identifier.IdentifiableEntity;
+import app.entity.hibernate.identifier.generator.Snowflake;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 64 bits time ordered id generated without a round trip, the index of a sequence without the sequence.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "SNOWFLAKE_ENTITY")
+public class SnowflakeTypeEntity implements IdentifiableEntity {
+
+	@Id
+	@Snowflake
+	private Long id;
+	private String text;
+
+	public SnowflakeTypeEntity(String text) {
+		this.text = text;
+	}
+}
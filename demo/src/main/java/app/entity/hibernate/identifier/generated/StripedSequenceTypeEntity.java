@@ -0,0 +1,32 @@
+package app.entity.hibernate.identifier.generated;
+
+import app.entity.hibernate.identifier.IdentifiableEntity;
+import app.entity.hibernate.identifier.generator.StripedSequence;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Same table and sequence as {@link SequenceTypeEntity}, but ids are handed out by the striped generator:
+ * no lock shared by all writers, and the next block is fetched before the current one runs out.
+ * Both entities can be written at the same time, they respect the same allocation size contract on message_seq.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "SEQUENCE_ENTITY")
+public class StripedSequenceTypeEntity implements IdentifiableEntity {
+
+	@Id
+	@StripedSequence(sequenceName = "message_seq", allocationSize = 100)
+	private Long id;
+	private String text;
+
+	public StripedSequenceTypeEntity(String text) {
+		this.text = text;
+	}
+}
@@ -0,0 +1,33 @@
+package app.entity.hibernate.identifier.generated;
+
+import java.util.UUID;
+
+import app.entity.hibernate.identifier.IdentifiableEntity;
+import app.entity.hibernate.identifier.generator.UuidV7;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Time ordered UUID generated without a round trip: batched like {@link UUIDv4TypeEntity}, but appended to the
+ * primary key index instead of inserted at random pages.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "UUID_V7_ENTITY")
+public class UuidV7TypeEntity implements IdentifiableEntity {
+
+	@Id
+	@UuidV7
+	private UUID id;
+	private String text;
+
+	public UuidV7TypeEntity(String text) {
+		this.text = text;
+	}
+}
@@ -0,0 +1,30 @@
+package app.entity.hibernate.identifier.generator;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Time ordered 64 bits ids generated in the JVM by {@link SnowflakeGenerator}.
+ */
+@IdGeneratorType(SnowflakeGenerator.class)
+@Retention(RUNTIME)
+@Target({METHOD, FIELD})
+public @interface Snowflake {
+
+	/**
+	 * 0 to 1023, unique per JVM writing to the table. -1 reads {@code -Dapp.snowflake.node}, or derives it from the
+	 * process id when not set.
+	 */
+	int node() default -1;
+
+	/**
+	 * Start of the 41 bits of milliseconds, which last about 69 years.
+	 */
+	long epochMillis() default 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+}
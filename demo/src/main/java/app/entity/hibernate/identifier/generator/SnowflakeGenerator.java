@@ -0,0 +1,57 @@
+package app.entity.hibernate.identifier.generator;
+
+import java.lang.reflect.Member;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+/**
+ * Snowflake layout: 1 unused sign bit, 41 bits of milliseconds since {@link Snowflake#epochMillis()}, 10 bits of node
+ * and a 12 bits counter. Half the size of a UUID in the table and every index, increasing like a sequence, and no
+ * round trip.
+ * <p>
+ * Like {@link UuidV7Generator}, millisecond and counter are one {@code long} updated with a CAS, and a counter
+ * overflow carries into the next millisecond instead of waiting for the clock.
+ */
+public class SnowflakeGenerator implements IdentifierGenerator {
+
+	private static final int COUNTER_BITS = 12;
+	private static final int NODE_BITS = 10;
+	private static final long MAX_NODE = (1 << NODE_BITS) - 1;
+
+	private final long epochMillis;
+	private final long node;
+	private final AtomicLong lastTimestampAndCounter = new AtomicLong();
+
+	public SnowflakeGenerator(Snowflake config, Member member, CustomIdGeneratorCreationContext context) {
+		this(config.epochMillis(), config.node() >= 0 ? config.node() : defaultNode());
+	}
+
+	public SnowflakeGenerator(long epochMillis, long node) {
+		if (node < 0 || node > MAX_NODE) {
+			throw new IllegalArgumentException("Snowflake node must be between 0 and " + MAX_NODE + ": " + node);
+		}
+		this.epochMillis = epochMillis;
+		this.node = node;
+	}
+
+	private static long defaultNode() {
+		Long configured = Long.getLong("app.snowflake.node");
+		return configured != null ? configured : ProcessHandle.current().pid() & MAX_NODE;
+	}
+
+	@Override
+	public Object generate(SharedSessionContractImplementor session, Object object) {
+		return next();
+	}
+
+	public long next() {
+		long timestampAndCounter = lastTimestampAndCounter.updateAndGet(
+				last -> Math.max((System.currentTimeMillis() - epochMillis) << COUNTER_BITS, last + 1));
+		long millis = timestampAndCounter >>> COUNTER_BITS;
+		long counter = timestampAndCounter & ((1 << COUNTER_BITS) - 1);
+		return millis << (NODE_BITS + COUNTER_BITS) | node << COUNTER_BITS | counter;
+	}
+}
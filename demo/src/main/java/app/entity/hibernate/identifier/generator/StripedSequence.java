@@ -0,0 +1,40 @@
+package app.entity.hibernate.identifier.generator;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Long identifiers taken from a database sequence through {@link StripedSequenceGenerator}.
+ * The sequence must be incremented by {@link #allocationSize()}, the same contract as Hibernate's pooled optimizer,
+ * so both generators can share a sequence without handing out the same id twice.
+ */
+@IdGeneratorType(StripedSequenceGenerator.class)
+@Retention(RUNTIME)
+@Target({METHOD, FIELD})
+public @interface StripedSequence {
+
+	String sequenceName();
+
+	/**
+	 * The sequence increment: one {@code nextval} reserves this many ids.
+	 */
+	int allocationSize() default 50;
+
+	/**
+	 * Minimum and maximum number of {@code nextval} calls fetched in one round trip for one stripe.
+	 */
+	int minQuanta() default 1;
+
+	int maxQuanta() default 64;
+
+	/**
+	 * How long a block should last at the observed consumption rate, used to size the next block.
+	 */
+	long targetBlockMillis() default 1000;
+}
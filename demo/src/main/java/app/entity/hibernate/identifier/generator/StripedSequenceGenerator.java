@@ -0,0 +1,164 @@
+package app.entity.hibernate.identifier.generator;
+
+import java.lang.reflect.Member;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sequence based generator without a shared lock.
+ * <p>
+ * Hibernate's pooled optimizer keeps one block per generator behind a lock, and the thread that exhausts it waits for
+ * {@code nextval} while every other writer waits for that thread. Here the threads are spread over stripes, each stripe
+ * has its own block, and an id is claimed with a single {@code getAndIncrement}. Once half of a block is used, the next
+ * one is fetched in the background on a separate connection, so writers normally never see the round trip.
+ * <p>
+ * A block is made of several sequence increments ("quanta") fetched in one query with
+ * {@code select nextval(...) from generate_series(1, n)}. The number of quanta follows the consumption rate of the
+ * stripe so that a block lasts about {@link StripedSequence#targetBlockMillis()}.
+ */
+@Slf4j
+public class StripedSequenceGenerator implements IdentifierGenerator {
+
+	// Fetching is blocking I/O, a virtual thread per fetch is the cheapest way to run it in the background
+	private static final ExecutorService PREFETCH_EXECUTOR = Executors.newThreadPerTaskExecutor(
+			Thread.ofVirtual().name("striped-sequence-prefetch-", 0).factory());
+
+	private final String sequenceName;
+	private final int quantum;
+	private final int minQuanta;
+	private final int maxQuanta;
+	private final long targetBlockNanos;
+	private final Stripe[] stripes;
+	private final int stripeMask;
+	private volatile SessionFactory sessionFactory;
+
+	public StripedSequenceGenerator(StripedSequence config, Member member, CustomIdGeneratorCreationContext context) {
+		this.sequenceName = config.sequenceName();
+		this.quantum = config.allocationSize();
+		this.minQuanta = config.minQuanta();
+		this.maxQuanta = config.maxQuanta();
+		this.targetBlockNanos = TimeUnit.MILLISECONDS.toNanos(config.targetBlockMillis());
+		int stripeCount = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1) << 1);
+		this.stripes = new Stripe[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new Stripe();
+		}
+		this.stripeMask = stripeCount - 1;
+	}
+
+	@Override
+	public Object generate(SharedSessionContractImplementor session, Object object) {
+		if (sessionFactory == null) {
+			sessionFactory = session.getFactory();
+		}
+		return stripes[(int) Thread.currentThread().threadId() & stripeMask].next();
+	}
+
+	private Block fetch(int quanta) {
+		// in a transaction of its own: the pool is not in auto-commit and would get the connection back idle in transaction
+		List<Long> values = sessionFactory.fromStatelessTransaction(statelessSession -> statelessSession
+				.createNativeQuery("select nextval('" + sequenceName + "') from generate_series(1, :quanta)", Long.class)
+				.setParameter("quanta", quanta)
+				.getResultList());
+		long[] starts = values.stream()
+				.mapToLong(value -> value - quantum + 1)
+				.filter(start -> start > 0) // the very first value of a new sequence does not cover a full quantum
+				.toArray();
+		log.debug("Fetched {} ids from {}", starts.length * quantum, sequenceName);
+		return new Block(starts, quanta);
+	}
+
+	private final class Stripe {
+		private final AtomicReference<Block> current = new AtomicReference<>();
+
+		long next() {
+			while (true) {
+				Block block = current.get();
+				if (block == null) {
+					current.compareAndSet(null, fetch(minQuanta));
+					continue;
+				}
+				int index = block.cursor.getAndIncrement();
+				if (index < block.size) {
+					if (index == block.size / 2) {
+						block.successor(); // start prefetching the next block
+					}
+					return block.idAt(index);
+				}
+				// Exhausted: every thread waits for the same successor, only one of them installs it
+				Block successor = block.successor().join();
+				if (current.compareAndSet(block, successor)) {
+					successor.installedNanos = System.nanoTime();
+				}
+			}
+		}
+	}
+
+	private final class Block {
+		private final long[] starts;
+		private final int quanta;
+		private final int size;
+		private final AtomicInteger cursor = new AtomicInteger();
+		private final AtomicReference<CompletableFuture<Block>> successor = new AtomicReference<>();
+		private volatile long installedNanos = System.nanoTime();
+
+		private Block(long[] starts, int quanta) {
+			this.starts = starts;
+			this.quanta = quanta;
+			this.size = starts.length * quantum;
+		}
+
+		long idAt(int index) {
+			return starts[index / quantum] + index % quantum;
+		}
+
+		CompletableFuture<Block> successor() {
+			CompletableFuture<Block> future = successor.get();
+			if (future == null) {
+				CompletableFuture<Block> created = new CompletableFuture<>();
+				if (successor.compareAndSet(null, created)) {
+					int nextQuanta = nextQuanta();
+					PREFETCH_EXECUTOR.execute(() -> {
+						try {
+							created.complete(fetch(nextQuanta));
+						} catch (RuntimeException e) {
+							// let the waiting writers fail, the next exhausted thread retries with a fresh block
+							successor.compareAndSet(created, null);
+							created.completeExceptionally(e);
+						}
+					});
+					future = created;
+				} else {
+					future = successor.get();
+				}
+			}
+			return future;
+		}
+
+		/**
+		 * Sizes the next block from how fast this one has been consumed so far.
+		 */
+		private int nextQuanta() {
+			long elapsed = Math.max(1, System.nanoTime() - installedNanos);
+			long consumed = Math.min(cursor.get(), size);
+			if (consumed == 0) {
+				return quanta;
+			}
+			double idsForTarget = consumed * (double) targetBlockNanos / elapsed;
+			int wanted = (int) Math.ceil(idsForTarget / quantum);
+			return Math.clamp(wanted, minQuanta, maxQuanta);
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package app.entity.hibernate.identifier.generator;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Time ordered UUIDs of version 7 (RFC 9562) generated in the JVM by {@link UuidV7Generator}.
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RUNTIME)
+@Target({METHOD, FIELD})
+public @interface UuidV7 {
+}
@@ -0,0 +1,44 @@
+package app.entity.hibernate.identifier.generator;
+
+import java.lang.reflect.Member;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+/**
+ * UUIDv7: 48 bits of Unix milliseconds, the version, a 12 bits counter (method 1 of RFC 9562), the variant and 62
+ * random bits. The ids of a generator are strictly increasing, so inserts always go to the rightmost B-tree page like
+ * a sequence, without a round trip to get them.
+ * <p>
+ * Millisecond and counter are one {@code long} updated with a CAS: no lock between writers. When more than 4096 ids
+ * are asked within a millisecond, the counter carries into the next millisecond, the timestamp runs slightly ahead
+ * of the clock until the load goes down.
+ */
+public class UuidV7Generator implements IdentifierGenerator {
+
+	private static final int COUNTER_BITS = 12;
+
+	private final AtomicLong lastTimestampAndCounter = new AtomicLong();
+
+	public UuidV7Generator(UuidV7 config, Member member, CustomIdGeneratorCreationContext context) {
+	}
+
+	@Override
+	public Object generate(SharedSessionContractImplementor session, Object object) {
+		return next();
+	}
+
+	public UUID next() {
+		long timestampAndCounter = lastTimestampAndCounter.updateAndGet(
+				last -> Math.max(System.currentTimeMillis() << COUNTER_BITS, last + 1));
+		long millis = timestampAndCounter >>> COUNTER_BITS;
+		long counter = timestampAndCounter & ((1 << COUNTER_BITS) - 1);
+		long mostSignificantBits = millis << 16 | 0x7000L | counter;
+		long leastSignificantBits = 0x8000000000000000L | (ThreadLocalRandom.current().nextLong() >>> 2);
+		return new UUID(mostSignificantBits, leastSignificantBits);
+	}
+}
@@ -1,12 +1,15 @@
 package app.entity.hibernate.postgres;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.JdbcType;
 import org.hibernate.dialect.PostgreSQLInetJdbcType;
 
@@ -17,6 +20,8 @@ import java.util.UUID;
 @NoArgsConstructor
 @Entity
 @Table(name = "ACCESS_INFO")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class AccessInfo {
 	@Id
 	private UUID id;
@@ -0,0 +1,26 @@
+package app.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("app.BatchFlush")
+@Label("JDBC Batch Flush")
+@Description("One executeBatch on a pooled connection")
+@Category({"Demo", "JDBC"})
+public class BatchFlushEvent extends Event {
+
+	@Label("SQL")
+	String sql;
+
+	@Label("Batch Size")
+	int batchSize;
+
+	@Label("Rows Affected")
+	long rows;
+
+	@Label("Success")
+	boolean success;
+}
@@ -0,0 +1,38 @@
+package app.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("app.CursorFetch")
+@Label("Cursor Fetch")
+@Description("One round trip of a server side cursor, bytes are estimated from the rows read")
+@Category({"Demo", "JDBC"})
+public class CursorFetchEvent extends Event {
+
+	@Label("Source")
+	String source;
+
+	@Label("Fetch Size")
+	int fetchSize;
+
+	@Label("Rows")
+	int rows;
+
+	@Label("Bytes")
+	@DataAmount
+	long bytes;
+
+	public CursorFetchEvent(String source, int fetchSize) {
+		this.source = source;
+		this.fetchSize = fetchSize;
+	}
+
+	public void setRows(int rows, long bytes) {
+		this.rows = rows;
+		this.bytes = bytes;
+	}
+}
@@ -0,0 +1,66 @@
+package app.jfr;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+import jdk.jfr.EventType;
+
+/**
+ * {@link CursorFetchEvent}s for a stream backed by a cursor with a fetch size. The round trip happens when the first
+ * row of a chunk is read, so that read is timed, and the event is committed with the rows and bytes of the chunk once
+ * it is consumed, or when the stream ends. The stream is returned as is when the event is not enabled.
+ */
+public final class CursorFetchEvents {
+
+	private static final int UUID_BYTES = 16;
+
+	private CursorFetchEvents() {
+	}
+
+	/**
+	 * Bytes of a UuidV6Entity row for the events: the uuid and the characters of the text, which may be null.
+	 */
+	public static long estimatedBytes(UuidV6Entity entity) {
+		return UUID_BYTES + (entity.getText() == null ? 0 : entity.getText().length());
+	}
+
+	public static <T> Stream<T> instrument(Stream<T> stream, String source, int fetchSize, ToLongFunction<? super T> bytes) {
+		if (!EventType.getEventType(CursorFetchEvent.class).isEnabled() || fetchSize <= 0) {
+			return stream;
+		}
+		Spliterator<T> rows = stream.spliterator();
+		return StreamSupport.stream(new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, rows.characteristics() & Spliterator.ORDERED) {
+
+			private CursorFetchEvent event;
+
+			@Override
+			public boolean tryAdvance(Consumer<? super T> action) {
+				boolean firstOfChunk = event == null;
+				if (firstOfChunk) {
+					event = new CursorFetchEvent(source, fetchSize);
+					event.begin();
+				}
+				boolean advanced = rows.tryAdvance(row -> {
+					if (firstOfChunk) {
+						event.end(); // the round trip, not the processing of the row
+					}
+					event.rows++;
+					event.bytes += bytes.applyAsLong(row);
+					action.accept(row);
+				});
+				if (!advanced || event.rows >= fetchSize) {
+					if (event.rows > 0) {
+						event.commit();
+					}
+					event = null;
+				}
+				return advanced;
+			}
+		}, false).onClose(stream::close);
+	}
+}
@@ -0,0 +1,98 @@
+package app.jfr;
+
+import java.sql.Statement;
+import java.util.List;
+
+import jdk.jfr.EventType;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.lifecycle.JdbcLifecycleEventListenerAdapter;
+
+/**
+ * datasource-proxy listener emitting {@link BatchFlushEvent} and {@link TransactionCommitEvent}. It sees every batch
+ * and commit of the pool, from Hibernate or plain JDBC. The event in progress is kept per thread, JDBC calls being
+ * synchronous, and nothing is allocated while the events are not enabled in the recording.
+ */
+public class JfrJdbcListener extends JdbcLifecycleEventListenerAdapter {
+
+	private static final ThreadLocal<BatchFlushEvent> BATCH = new ThreadLocal<>();
+	private static final ThreadLocal<TransactionCommitEvent> COMMIT = new ThreadLocal<>();
+
+	private final EventType batchType = EventType.getEventType(BatchFlushEvent.class);
+	private final EventType commitType = EventType.getEventType(TransactionCommitEvent.class);
+
+	@Override
+	public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+		if (execInfo.isBatch() && batchType.isEnabled()) {
+			BatchFlushEvent event = new BatchFlushEvent();
+			event.begin();
+			BATCH.set(event);
+		}
+	}
+
+	@Override
+	public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+		BatchFlushEvent event = BATCH.get();
+		if (event == null) {
+			return;
+		}
+		BATCH.remove();
+		event.end();
+		if (event.shouldCommit()) {
+			event.sql = queryInfoList.isEmpty() ? null : queryInfoList.get(0).getQuery();
+			event.batchSize = execInfo.getBatchSize();
+			event.success = execInfo.isSuccess();
+			if (execInfo.getResult() instanceof int[] counts) {
+				for (int count : counts) {
+					event.rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+				}
+			}
+			event.commit();
+		}
+	}
+
+	@Override
+	public void beforeCommit(MethodExecutionContext executionContext) {
+		beginCommit(false);
+	}
+
+	@Override
+	public void afterCommit(MethodExecutionContext executionContext) {
+		endCommit(executionContext);
+	}
+
+	@Override
+	public void beforeRollback(MethodExecutionContext executionContext) {
+		beginCommit(true);
+	}
+
+	@Override
+	public void afterRollback(MethodExecutionContext executionContext) {
+		endCommit(executionContext);
+	}
+
+	private void beginCommit(boolean rollback) {
+		if (commitType.isEnabled()) {
+			TransactionCommitEvent event = new TransactionCommitEvent();
+			event.rollback = rollback;
+			event.begin();
+			COMMIT.set(event);
+		}
+	}
+
+	private void endCommit(MethodExecutionContext executionContext) {
+		TransactionCommitEvent event = COMMIT.get();
+		if (event == null) {
+			return;
+		}
+		COMMIT.remove();
+		event.end();
+		if (event.shouldCommit()) {
+			event.connectionId = executionContext.getConnectionInfo() == null ? null
+					: executionContext.getConnectionInfo().getConnectionId();
+			event.success = executionContext.getThrown() == null;
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package app.jfr;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Registered with {@code hibernate.session.events.auto}, Hibernate creates one per session: the
+ * {@link SessionEvent} starts when the session is opened and is committed when it is closed.
+ */
+public class JfrSessionEventListener extends BaseSessionEventListener {
+
+	private final transient SessionEvent event = new SessionEvent();
+
+	public JfrSessionEventListener() {
+		event.begin();
+	}
+
+	@Override
+	public void transactionCompletion(boolean successful) {
+		event.transactions++;
+	}
+
+	@Override
+	public void jdbcExecuteStatementStart() {
+		event.statements++;
+	}
+
+	@Override
+	public void jdbcExecuteBatchStart() {
+		event.batches++;
+	}
+
+	@Override
+	public void end() {
+		event.commit(); // ends the event, a no-op when it is not enabled in the recording
+	}
+}
@@ -0,0 +1,23 @@
+package app.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("app.Session")
+@Label("Hibernate Session")
+@Description("From the opening to the closing of a (stateless) session")
+@Category({"Demo", "Hibernate"})
+public class SessionEvent extends Event {
+
+	@Label("Transactions")
+	int transactions;
+
+	@Label("Statements")
+	int statements;
+
+	@Label("Batches")
+	int batches;
+}
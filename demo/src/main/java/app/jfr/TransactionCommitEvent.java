@@ -0,0 +1,21 @@
+package app.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("app.TransactionCommit")
+@Label("Transaction Commit")
+@Category({"Demo", "JDBC"})
+public class TransactionCommitEvent extends Event {
+
+	@Label("Connection")
+	String connectionId;
+
+	@Label("Rollback")
+	boolean rollback;
+
+	@Label("Success")
+	boolean success;
+}
@@ -0,0 +1,88 @@
+package app.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of positive longs: exact below 16, then 8 linear buckets per power of two, so values are kept
+ * within 12.5%. {@link #record(long)} does not allocate, it is a few atomic increments on a fixed array. Good enough
+ * for latencies in nanoseconds as well as for batch sizes.
+ */
+public class Histogram {
+
+	private static final int EXACT = 16;
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = EXACT + (63 - 4) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	public record Snapshot(long count, long sum, long max, long p50, long p90, long p99) {
+
+		public double mean() {
+			return count == 0 ? 0 : (double) sum / count;
+		}
+	}
+
+	public void record(long value) {
+		long v = Math.max(0, value);
+		counts.incrementAndGet(bucket(v));
+		sum.add(v);
+		max.accumulate(v);
+	}
+
+	/**
+	 * Percentiles are the upper bound of their bucket. Recording keeps going while the snapshot is taken, so it is only
+	 * consistent to within the values recorded meanwhile.
+	 */
+	public Snapshot snapshot() {
+		// the count is the total of the buckets, so that it agrees with the percentiles of the same snapshot
+		long[] copy = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			copy[i] = counts.get(i);
+			total += copy[i];
+		}
+		long maxValue = max.get();
+		return new Snapshot(total, sum.sum(), maxValue,
+				percentile(copy, total, 0.50, maxValue),
+				percentile(copy, total, 0.90, maxValue),
+				percentile(copy, total, 0.99, maxValue));
+	}
+
+	private static long percentile(long[] counts, long total, double quantile, long maxValue) {
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(quantile * total);
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(upperBound(i), maxValue);
+			}
+		}
+		return maxValue;
+	}
+
+	static int bucket(long value) {
+		if (value < EXACT) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return EXACT + (exponent - 4) * SUB_BUCKETS + subBucket;
+	}
+
+	static long upperBound(int bucket) {
+		if (bucket < EXACT) {
+			return bucket;
+		}
+		int exponent = (bucket - EXACT) / SUB_BUCKETS + 4;
+		long subBucket = (bucket - EXACT) % SUB_BUCKETS;
+		return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
@@ -0,0 +1,163 @@
+package app.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpServer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Prometheus text format of {@link SampledStatistics}, written periodically to a file (for the node exporter textfile
+ * collector for instance) and/or served on {@code http://localhost:port/metrics} by the JDK http server.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class PrometheusStatisticsExporter implements AutoCloseable {
+
+	private final SampledStatistics statistics;
+	private ScheduledExecutorService scheduler;
+	private HttpServer server;
+
+	public synchronized PrometheusStatisticsExporter exportToFile(Path file, Duration period) {
+		if (scheduler == null) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("stats-export").factory());
+		}
+		scheduler.scheduleAtFixedRate(() -> {
+			try {
+				writeTo(file);
+			}
+			catch (RuntimeException e) {
+				log.warn("Statistics export to {} failed: {}", file, e.getMessage());
+			}
+		}, 0, period.toMillis(), TimeUnit.MILLISECONDS);
+		return this;
+	}
+
+	public synchronized PrometheusStatisticsExporter exportToEndpoint(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+		server.createContext("/metrics", exchange -> {
+			byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		log.info("Hibernate statistics on http://localhost:{}/metrics", server.getAddress().getPort());
+		return this;
+	}
+
+	/**
+	 * Written next to the file then moved, so a reader never sees half of it.
+	 */
+	public void writeTo(Path file) {
+		try {
+			Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+			Files.writeString(tmp, scrape());
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public String scrape() {
+		StringBuilder out = new StringBuilder(4096);
+		counter(out, "hibernate_sessions_opened_total", statistics.getSessionOpenCount());
+		counter(out, "hibernate_sessions_closed_total", statistics.getSessionCloseCount());
+		counter(out, "hibernate_transactions_total", statistics.getTransactionCount());
+		counter(out, "hibernate_transactions_successful_total", statistics.getSuccessfulTransactionCount());
+		counter(out, "hibernate_statements_prepared_total", statistics.getPrepareStatementCount());
+		counter(out, "hibernate_statements_closed_total", statistics.getCloseStatementCount());
+		counter(out, "hibernate_flushes_total", statistics.getFlushCount());
+		counter(out, "hibernate_connections_obtained_total", statistics.getConnectCount());
+		counter(out, "hibernate_optimistic_failures_total", statistics.getOptimisticFailureCount());
+		counter(out, "hibernate_entity_inserts_total", statistics.getEntityInsertCount());
+		counter(out, "hibernate_entity_updates_total", statistics.getEntityUpdateCount());
+		counter(out, "hibernate_entity_deletes_total", statistics.getEntityDeleteCount());
+		counter(out, "hibernate_entity_loads_total", statistics.getEntityLoadCount());
+		counter(out, "hibernate_entity_fetches_total", statistics.getEntityFetchCount());
+		counter(out, "hibernate_queries_executed_total", statistics.getQueryExecutionCount());
+		counter(out, "hibernate_query_plan_cache_hits_total", statistics.getQueryPlanCacheHitCount());
+		counter(out, "hibernate_query_plan_cache_misses_total", statistics.getQueryPlanCacheMissCount());
+		counter(out, "hibernate_second_level_cache_hits_total", statistics.getSecondLevelCacheHitCount());
+		counter(out, "hibernate_second_level_cache_misses_total", statistics.getSecondLevelCacheMissCount());
+		counter(out, "hibernate_second_level_cache_puts_total", statistics.getSecondLevelCachePutCount());
+		out.append("# TYPE hibernate_query_execution_max_millis gauge\n")
+				.append("hibernate_query_execution_max_millis ").append(statistics.getQueryExecutionMaxTime()).append('\n');
+
+		Map<String, SampledStatistics.EntityCounts> entities = statistics.entityCounts();
+		if (!entities.isEmpty()) {
+			out.append("# TYPE hibernate_entity_operations_total counter\n");
+			entities.forEach((entity, counts) -> {
+				entityOperation(out, entity, "insert", counts.inserts());
+				entityOperation(out, entity, "update", counts.updates());
+				entityOperation(out, entity, "delete", counts.deletes());
+				entityOperation(out, entity, "load", counts.loads());
+				entityOperation(out, entity, "fetch", counts.fetches());
+			});
+		}
+
+		Map<String, SampledStatistics.QueryCounts> queries = statistics.queryCounts();
+		if (!queries.isEmpty()) {
+			out.append("# TYPE hibernate_query_duration_millis summary\n");
+			queries.forEach((query, counts) -> {
+				Histogram.Snapshot latency = counts.latencyMillis();
+				String label = "query=\"" + escape(query) + "\"";
+				quantile(out, label, "0.5", latency.p50());
+				quantile(out, label, "0.9", latency.p90());
+				quantile(out, label, "0.99", latency.p99());
+				out.append("hibernate_query_duration_millis_sum{").append(label).append("} ").append(latency.sum()).append('\n');
+				out.append("hibernate_query_duration_millis_count{").append(label).append("} ").append(latency.count()).append('\n');
+			});
+			out.append("# TYPE hibernate_query_rows_total counter\n");
+			queries.forEach((query, counts) -> out.append("hibernate_query_rows_total{query=\"").append(escape(query))
+					.append("\"} ").append(counts.rows()).append('\n'));
+		}
+		return out.toString();
+	}
+
+	@Override
+	public synchronized void close() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+		if (server != null) {
+			server.stop(0);
+			server = null;
+		}
+	}
+
+	private static void counter(StringBuilder out, String name, long value) {
+		out.append("# TYPE ").append(name).append(" counter\n").append(name).append(' ').append(value).append('\n');
+	}
+
+	private static void entityOperation(StringBuilder out, String entity, String operation, long value) {
+		out.append("hibernate_entity_operations_total{entity=\"").append(escape(entity))
+				.append("\",operation=\"").append(operation).append("\"} ").append(value).append('\n');
+	}
+
+	private static void quantile(StringBuilder out, String label, String quantile, long value) {
+		out.append("hibernate_query_duration_millis{").append(label).append(",quantile=\"").append(quantile)
+				.append("\"} ").append(value).append('\n');
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+}
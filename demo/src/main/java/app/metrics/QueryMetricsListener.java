@@ -0,0 +1,147 @@
+package app.metrics;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * datasource-proxy listener that records, per statement shape (the SQL text, with its bind markers), the latency,
+ * the batch sizes and the rows affected, instead of formatting and logging every statement.
+ * <p>
+ * Nothing is allocated on the recording path once a shape is known: the start time is kept in a per-thread array and
+ * the recorders are {@link Histogram}s and LongAdders. Statements slower than {@code slowQueryThreshold} are logged,
+ * one out of {@code slowQuerySampling}. The number of shapes is capped, statements built with literals would
+ * otherwise grow the map forever, the extra ones are recorded under {@link #OTHER}.
+ */
+@Slf4j
+public class QueryMetricsListener implements QueryExecutionListener {
+
+	public static final String OTHER = "<other>";
+
+	private static final ThreadLocal<long[]> START = ThreadLocal.withInitial(() -> new long[1]);
+
+	private final Map<String, StatementMetrics> metrics = new ConcurrentHashMap<>();
+	private final long slowQueryThresholdNanos;
+	private final int slowQuerySampling;
+	private final int maxShapes;
+	private final LongAdder slowQueries = new LongAdder();
+
+	public record StatementSnapshot(String sql, Histogram.Snapshot latencyNanos, Histogram.Snapshot batchSizes,
+			long rowsAffected, long failures) {
+	}
+
+	private static final class StatementMetrics {
+
+		private final Histogram latencyNanos = new Histogram();
+		private final Histogram batchSizes = new Histogram();
+		private final LongAdder rowsAffected = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+	}
+
+	public QueryMetricsListener(Duration slowQueryThreshold, int slowQuerySampling, int maxShapes) {
+		this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+		this.slowQuerySampling = Math.max(1, slowQuerySampling);
+		this.maxShapes = maxShapes;
+	}
+
+	/**
+	 * Logs one statement out of 10 above 100ms, up to 1000 shapes.
+	 */
+	public static QueryMetricsListener withDefaults() {
+		return new QueryMetricsListener(Duration.ofMillis(100), 10, 1000);
+	}
+
+	@Override
+	public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+		START.get()[0] = System.nanoTime();
+	}
+
+	@Override
+	public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+		long elapsed = System.nanoTime() - START.get()[0];
+		String sql = queryInfoList.isEmpty() ? OTHER : queryInfoList.get(0).getQuery();
+		StatementMetrics statementMetrics = metricsFor(sql);
+		statementMetrics.latencyNanos.record(elapsed);
+		statementMetrics.batchSizes.record(execInfo.isBatch() ? execInfo.getBatchSize() : 1);
+		if (!execInfo.isSuccess()) {
+			statementMetrics.failures.increment();
+		}
+		else {
+			statementMetrics.rowsAffected.add(rowsAffected(execInfo.getResult()));
+		}
+		if (elapsed >= slowQueryThresholdNanos) {
+			slowQueries.increment();
+			if (slowQueries.sum() % slowQuerySampling == 0) {
+				log.warn("Slow statement, {} ms, batch size {}: {}", elapsed / 1_000_000,
+						execInfo.getBatchSize(), sql);
+			}
+		}
+	}
+
+	public Map<String, StatementSnapshot> snapshot() {
+		return metrics.entrySet().stream()
+				.map(entry -> new StatementSnapshot(entry.getKey(),
+						entry.getValue().latencyNanos.snapshot(),
+						entry.getValue().batchSizes.snapshot(),
+						entry.getValue().rowsAffected.sum(),
+						entry.getValue().failures.sum()))
+				.collect(Collectors.toMap(StatementSnapshot::sql, Function.identity()));
+	}
+
+	public long slowQueries() {
+		return slowQueries.sum();
+	}
+
+	public void reset() {
+		metrics.clear();
+		slowQueries.reset();
+	}
+
+	private StatementMetrics metricsFor(String sql) {
+		StatementMetrics statementMetrics = metrics.get(sql);
+		if (statementMetrics != null) {
+			return statementMetrics;
+		}
+		return metrics.computeIfAbsent(metrics.size() < maxShapes ? sql : OTHER, key -> new StatementMetrics());
+	}
+
+	// executeUpdate returns the count, executeBatch one count per statement, queries a ResultSet that is not counted.
+	// pgjdbc answers SUCCESS_NO_INFO for the inserts it rewrote with reWriteBatchedInserts, one row each.
+	private static long rowsAffected(Object result) {
+		if (result instanceof Integer count) {
+			return Math.max(0, count);
+		}
+		if (result instanceof Long count) {
+			return Math.max(0, count);
+		}
+		if (result instanceof int[] counts) {
+			long total = 0;
+			for (int count : counts) {
+				total += rows(count);
+			}
+			return total;
+		}
+		if (result instanceof long[] counts) {
+			long total = 0;
+			for (long count : counts) {
+				total += rows(count);
+			}
+			return total;
+		}
+		return 0;
+	}
+
+	private static long rows(long count) {
+		return count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+	}
+}
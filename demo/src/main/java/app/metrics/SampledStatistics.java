@@ -0,0 +1,983 @@
+package app.metrics;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.model.domain.NavigableRole;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.CollectionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.NaturalIdStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hibernate statistics on LongAdders, registered with {@code hibernate.stats.factory}. Hibernate only calls it while
+ * {@link #isStatisticsEnabled()}, which can be switched at runtime, as well as the per-entity and per-query detail:
+ * the global counters cost a striped increment, the detail a map lookup, and the per-query latency goes to a
+ * {@link Histogram}. At most {@code maxQueries} queries are tracked.
+ * <p>
+ * The detail is read with {@link #entityCounts()} and {@link #queryCounts()} or exported by
+ * {@link PrometheusStatisticsExporter}. The {@code get*Statistics(name)} views of the Hibernate API are snapshots of
+ * the same counts, zero for a name without detail. Collections, natural ids and cache regions are not tracked by name,
+ * their views are always zero.
+ */
+@Slf4j
+public class SampledStatistics implements StatisticsImplementor {
+
+	private static final int DEFAULT_MAX_QUERIES = 500;
+
+	private final int maxQueries;
+	private volatile boolean enabled;
+	private volatile boolean entityDetail;
+	private volatile boolean queryDetail;
+	private volatile Instant start = Instant.now();
+
+	private final LongAdder sessionOpenCount = new LongAdder();
+	private final LongAdder sessionCloseCount = new LongAdder();
+	private final LongAdder flushCount = new LongAdder();
+	private final LongAdder connectCount = new LongAdder();
+	private final LongAdder prepareStatementCount = new LongAdder();
+	private final LongAdder closeStatementCount = new LongAdder();
+	private final LongAdder transactionCount = new LongAdder();
+	private final LongAdder successfulTransactionCount = new LongAdder();
+	private final LongAdder optimisticFailureCount = new LongAdder();
+
+	private final LongAdder entityLoadCount = new LongAdder();
+	private final LongAdder entityFetchCount = new LongAdder();
+	private final LongAdder entityInsertCount = new LongAdder();
+	private final LongAdder entityUpdateCount = new LongAdder();
+	private final LongAdder entityDeleteCount = new LongAdder();
+
+	private final LongAdder collectionLoadCount = new LongAdder();
+	private final LongAdder collectionFetchCount = new LongAdder();
+	private final LongAdder collectionUpdateCount = new LongAdder();
+	private final LongAdder collectionRecreateCount = new LongAdder();
+	private final LongAdder collectionRemoveCount = new LongAdder();
+
+	private final LongAdder secondLevelCacheHitCount = new LongAdder();
+	private final LongAdder secondLevelCacheMissCount = new LongAdder();
+	private final LongAdder secondLevelCachePutCount = new LongAdder();
+	private final LongAdder naturalIdCacheHitCount = new LongAdder();
+	private final LongAdder naturalIdCacheMissCount = new LongAdder();
+	private final LongAdder naturalIdCachePutCount = new LongAdder();
+	private final LongAdder naturalIdQueryExecutionCount = new LongAdder();
+	private final LongAccumulator naturalIdQueryExecutionMaxTime = new LongAccumulator(Math::max, 0);
+	private final LongAdder queryCacheHitCount = new LongAdder();
+	private final LongAdder queryCacheMissCount = new LongAdder();
+	private final LongAdder queryCachePutCount = new LongAdder();
+	private final LongAdder updateTimestampsCacheHitCount = new LongAdder();
+	private final LongAdder updateTimestampsCacheMissCount = new LongAdder();
+	private final LongAdder updateTimestampsCachePutCount = new LongAdder();
+
+	private final LongAdder queryExecutionCount = new LongAdder();
+	private final LongAccumulator queryExecutionMaxTime = new LongAccumulator(Math::max, 0);
+	private volatile String queryExecutionMaxTimeQueryString;
+	private final LongAdder queryPlanCacheHitCount = new LongAdder();
+	private final LongAdder queryPlanCacheMissCount = new LongAdder();
+
+	private final Map<String, EntityCounts> entities = new ConcurrentHashMap<>();
+	private final Map<String, QueryCounts> queries = new ConcurrentHashMap<>();
+	private final Map<String, Long> slowQueries = new ConcurrentHashMap<>();
+
+	public static final class EntityCounts {
+
+		private final LongAdder loads = new LongAdder();
+		private final LongAdder fetches = new LongAdder();
+		private final LongAdder inserts = new LongAdder();
+		private final LongAdder updates = new LongAdder();
+		private final LongAdder deletes = new LongAdder();
+
+		public long loads() {
+			return loads.sum();
+		}
+
+		public long fetches() {
+			return fetches.sum();
+		}
+
+		public long inserts() {
+			return inserts.sum();
+		}
+
+		public long updates() {
+			return updates.sum();
+		}
+
+		public long deletes() {
+			return deletes.sum();
+		}
+	}
+
+	public static final class QueryCounts {
+
+		private final Histogram latencyMillis = new Histogram();
+		private final LongAccumulator minLatencyMillis = new LongAccumulator(Math::min, Long.MAX_VALUE);
+		private final LongAdder rows = new LongAdder();
+
+		public Histogram.Snapshot latencyMillis() {
+			return latencyMillis.snapshot();
+		}
+
+		public long rows() {
+			return rows.sum();
+		}
+	}
+
+	/**
+	 * Value of {@code hibernate.stats.factory}.
+	 */
+	public static class Factory implements StatisticsFactory {
+
+		@Override
+		public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+			return new SampledStatistics(DEFAULT_MAX_QUERIES);
+		}
+	}
+
+	public SampledStatistics(int maxQueries) {
+		this.maxQueries = maxQueries;
+	}
+
+	public static SampledStatistics of(SessionFactory sessionFactory) {
+		if (sessionFactory.getStatistics() instanceof SampledStatistics statistics) {
+			return statistics;
+		}
+		throw new IllegalStateException("hibernate.stats.factory is not " + Factory.class.getName());
+	}
+
+	@Override
+	public boolean isStatisticsEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public void setStatisticsEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public boolean isEntityDetailEnabled() {
+		return entityDetail;
+	}
+
+	public void setEntityDetailEnabled(boolean entityDetail) {
+		this.entityDetail = entityDetail;
+	}
+
+	public boolean isQueryDetailEnabled() {
+		return queryDetail;
+	}
+
+	public void setQueryDetailEnabled(boolean queryDetail) {
+		this.queryDetail = queryDetail;
+	}
+
+	public Map<String, EntityCounts> entityCounts() {
+		return Map.copyOf(entities);
+	}
+
+	public Map<String, QueryCounts> queryCounts() {
+		return Map.copyOf(queries);
+	}
+
+	@Override
+	public void clear() {
+		for (LongAdder adder : new LongAdder[] {sessionOpenCount, sessionCloseCount, flushCount, connectCount,
+				prepareStatementCount, closeStatementCount, transactionCount, successfulTransactionCount,
+				optimisticFailureCount, entityLoadCount, entityFetchCount, entityInsertCount, entityUpdateCount,
+				entityDeleteCount, collectionLoadCount, collectionFetchCount, collectionUpdateCount,
+				collectionRecreateCount, collectionRemoveCount, secondLevelCacheHitCount, secondLevelCacheMissCount,
+				secondLevelCachePutCount, naturalIdCacheHitCount, naturalIdCacheMissCount, naturalIdCachePutCount,
+				naturalIdQueryExecutionCount, queryCacheHitCount, queryCacheMissCount, queryCachePutCount,
+				updateTimestampsCacheHitCount, updateTimestampsCacheMissCount, updateTimestampsCachePutCount,
+				queryExecutionCount, queryPlanCacheHitCount, queryPlanCacheMissCount}) {
+			adder.reset();
+		}
+		naturalIdQueryExecutionMaxTime.reset();
+		queryExecutionMaxTime.reset();
+		queryExecutionMaxTimeQueryString = null;
+		entities.clear();
+		queries.clear();
+		slowQueries.clear();
+		start = Instant.now();
+	}
+
+	@Override
+	public void logSummary() {
+		log.info("Sessions opened {}, closed {}, transactions {} ({} successful), statements prepared {}, flushes {}, "
+						+ "entities inserted {}, updated {}, deleted {}, loaded {}, fetched {}, queries {} (max {} ms)",
+				getSessionOpenCount(), getSessionCloseCount(), getTransactionCount(), getSuccessfulTransactionCount(),
+				getPrepareStatementCount(), getFlushCount(), getEntityInsertCount(), getEntityUpdateCount(),
+				getEntityDeleteCount(), getEntityLoadCount(), getEntityFetchCount(), getQueryExecutionCount(),
+				getQueryExecutionMaxTime());
+	}
+
+	// Recording, only called by Hibernate while enabled
+
+	@Override
+	public void openSession() {
+		sessionOpenCount.increment();
+	}
+
+	@Override
+	public void closeSession() {
+		sessionCloseCount.increment();
+	}
+
+	@Override
+	public void flush() {
+		flushCount.increment();
+	}
+
+	@Override
+	public void connect() {
+		connectCount.increment();
+	}
+
+	@Override
+	public void prepareStatement() {
+		prepareStatementCount.increment();
+	}
+
+	@Override
+	public void closeStatement() {
+		closeStatementCount.increment();
+	}
+
+	@Override
+	public void endTransaction(boolean success) {
+		transactionCount.increment();
+		if (success) {
+			successfulTransactionCount.increment();
+		}
+	}
+
+	@Override
+	public void loadEntity(String entityName) {
+		entityLoadCount.increment();
+		if (entityDetail) {
+			entity(entityName).loads.increment();
+		}
+	}
+
+	@Override
+	public void fetchEntity(String entityName) {
+		entityFetchCount.increment();
+		if (entityDetail) {
+			entity(entityName).fetches.increment();
+		}
+	}
+
+	@Override
+	public void updateEntity(String entityName) {
+		entityUpdateCount.increment();
+		if (entityDetail) {
+			entity(entityName).updates.increment();
+		}
+	}
+
+	@Override
+	public void insertEntity(String entityName) {
+		entityInsertCount.increment();
+		if (entityDetail) {
+			entity(entityName).inserts.increment();
+		}
+	}
+
+	@Override
+	public void deleteEntity(String entityName) {
+		entityDeleteCount.increment();
+		if (entityDetail) {
+			entity(entityName).deletes.increment();
+		}
+	}
+
+	@Override
+	public void optimisticFailure(String entityName) {
+		optimisticFailureCount.increment();
+	}
+
+	@Override
+	public void loadCollection(String role) {
+		collectionLoadCount.increment();
+	}
+
+	@Override
+	public void fetchCollection(String role) {
+		collectionFetchCount.increment();
+	}
+
+	@Override
+	public void updateCollection(String role) {
+		collectionUpdateCount.increment();
+	}
+
+	@Override
+	public void recreateCollection(String role) {
+		collectionRecreateCount.increment();
+	}
+
+	@Override
+	public void removeCollection(String role) {
+		collectionRemoveCount.increment();
+	}
+
+	@Override
+	public void entityCachePut(NavigableRole entityName, String regionName) {
+		secondLevelCachePutCount.increment();
+	}
+
+	@Override
+	public void entityCacheHit(NavigableRole entityName, String regionName) {
+		secondLevelCacheHitCount.increment();
+	}
+
+	@Override
+	public void entityCacheMiss(NavigableRole entityName, String regionName) {
+		secondLevelCacheMissCount.increment();
+	}
+
+	@Override
+	public void collectionCachePut(NavigableRole collectionRole, String regionName) {
+		secondLevelCachePutCount.increment();
+	}
+
+	@Override
+	public void collectionCacheHit(NavigableRole collectionRole, String regionName) {
+		secondLevelCacheHitCount.increment();
+	}
+
+	@Override
+	public void collectionCacheMiss(NavigableRole collectionRole, String regionName) {
+		secondLevelCacheMissCount.increment();
+	}
+
+	@Override
+	public void naturalIdCachePut(NavigableRole rootEntityName, String regionName) {
+		naturalIdCachePutCount.increment();
+	}
+
+	@Override
+	public void naturalIdCacheHit(NavigableRole rootEntityName, String regionName) {
+		naturalIdCacheHitCount.increment();
+	}
+
+	@Override
+	public void naturalIdCacheMiss(NavigableRole rootEntityName, String regionName) {
+		naturalIdCacheMissCount.increment();
+	}
+
+	@Override
+	public void naturalIdQueryExecuted(String rootEntityName, long executionTime) {
+		naturalIdQueryExecutionCount.increment();
+		naturalIdQueryExecutionMaxTime.accumulate(executionTime);
+	}
+
+	@Override
+	public void queryCachePut(String hql, String regionName) {
+		queryCachePutCount.increment();
+	}
+
+	@Override
+	public void queryCacheHit(String hql, String regionName) {
+		queryCacheHitCount.increment();
+	}
+
+	@Override
+	public void queryCacheMiss(String hql, String regionName) {
+		queryCacheMissCount.increment();
+	}
+
+	@Override
+	public void queryExecuted(String hql, int rows, long time) {
+		queryExecutionCount.increment();
+		if (time > queryExecutionMaxTime.get()) {
+			queryExecutionMaxTime.accumulate(time);
+			queryExecutionMaxTimeQueryString = hql; // racy, like the max time it goes with
+		}
+		if (queryDetail && hql != null) {
+			QueryCounts queryCounts = query(hql);
+			if (queryCounts != null) {
+				queryCounts.latencyMillis.record(time);
+				queryCounts.minLatencyMillis.accumulate(time);
+				queryCounts.rows.add(rows);
+			}
+		}
+	}
+
+	@Override
+	public void updateTimestampsCacheHit() {
+		updateTimestampsCacheHitCount.increment();
+	}
+
+	@Override
+	public void updateTimestampsCacheMiss() {
+		updateTimestampsCacheMissCount.increment();
+	}
+
+	@Override
+	public void updateTimestampsCachePut() {
+		updateTimestampsCachePutCount.increment();
+	}
+
+	@Override
+	public void queryPlanCacheHit(String query) {
+		queryPlanCacheHitCount.increment();
+	}
+
+	@Override
+	public void queryPlanCacheMiss(String query) {
+		queryPlanCacheMissCount.increment();
+	}
+
+	@Override
+	public void slowQuery(String sql, long executionTime) {
+		if (slowQueries.size() < maxQueries || slowQueries.containsKey(sql)) {
+			slowQueries.merge(sql, executionTime, Math::max);
+		}
+	}
+
+	@Override
+	public Map<String, Long> getSlowQueries() {
+		return Map.copyOf(slowQueries);
+	}
+
+	private EntityCounts entity(String entityName) {
+		EntityCounts entityCounts = entities.get(entityName);
+		return entityCounts != null ? entityCounts : entities.computeIfAbsent(entityName, name -> new EntityCounts());
+	}
+
+	private QueryCounts query(String hql) {
+		QueryCounts queryCounts = queries.get(hql);
+		if (queryCounts != null || queries.size() >= maxQueries) {
+			return queryCounts;
+		}
+		return queries.computeIfAbsent(hql, query -> new QueryCounts());
+	}
+
+	// Hibernate's per name views, over the detail counts
+
+	@Override
+	public EntityStatistics getEntityStatistics(String entityName) {
+		EntityCounts counts = entities.get(entityName);
+		return counts == null
+				? new EntityView(0, 0, 0, 0, 0)
+				: new EntityView(counts.loads(), counts.fetches(), counts.inserts(), counts.updates(), counts.deletes());
+	}
+
+	@Override
+	public CollectionStatistics getCollectionStatistics(String role) {
+		return EmptyCollectionView.INSTANCE;
+	}
+
+	@Override
+	public NaturalIdStatistics getNaturalIdStatistics(String entityName) {
+		return EmptyNaturalIdView.INSTANCE;
+	}
+
+	@Override
+	public QueryStatistics getQueryStatistics(String queryString) {
+		QueryCounts counts = queries.get(queryString);
+		if (counts == null) {
+			return new QueryView(0, 0, 0, 0, 0);
+		}
+		Histogram.Snapshot latency = counts.latencyMillis();
+		return new QueryView(latency.count(), counts.rows(), latency.sum(), latency.max(),
+				latency.count() == 0 ? 0 : counts.minLatencyMillis.get());
+	}
+
+	@Override
+	public CacheRegionStatistics getDomainDataRegionStatistics(String regionName) {
+		return new EmptyRegionView(regionName);
+	}
+
+	@Override
+	public CacheRegionStatistics getQueryRegionStatistics(String regionName) {
+		return new EmptyRegionView(regionName);
+	}
+
+	@Override
+	public CacheRegionStatistics getCacheRegionStatistics(String regionName) {
+		return new EmptyRegionView(regionName);
+	}
+
+	private record EntityView(long loads, long fetches, long inserts, long updates, long deletes)
+			implements EntityStatistics {
+
+		@Override
+		public long getLoadCount() {
+			return loads;
+		}
+
+		@Override
+		public long getFetchCount() {
+			return fetches;
+		}
+
+		@Override
+		public long getInsertCount() {
+			return inserts;
+		}
+
+		@Override
+		public long getUpdateCount() {
+			return updates;
+		}
+
+		@Override
+		public long getDeleteCount() {
+			return deletes;
+		}
+
+		@Override
+		public long getOptimisticFailureCount() {
+			return 0;
+		}
+
+		@Override
+		public String getCacheRegionName() {
+			return null;
+		}
+
+		@Override
+		public long getCachePutCount() {
+			return NOT_CACHED_COUNT;
+		}
+
+		@Override
+		public long getCacheHitCount() {
+			return NOT_CACHED_COUNT;
+		}
+
+		@Override
+		public long getCacheMissCount() {
+			return NOT_CACHED_COUNT;
+		}
+	}
+
+	private record QueryView(long executions, long rows, long totalMillis, long maxMillis, long minMillis)
+			implements QueryStatistics {
+
+		@Override
+		public long getExecutionCount() {
+			return executions;
+		}
+
+		@Override
+		public long getExecutionRowCount() {
+			return rows;
+		}
+
+		@Override
+		public long getExecutionAvgTime() {
+			return executions == 0 ? 0 : totalMillis / executions;
+		}
+
+		@Override
+		public double getExecutionAvgTimeAsDouble() {
+			return executions == 0 ? 0 : (double) totalMillis / executions;
+		}
+
+		@Override
+		public long getExecutionMaxTime() {
+			return maxMillis;
+		}
+
+		@Override
+		public long getExecutionMinTime() {
+			return minMillis;
+		}
+
+		@Override
+		public long getExecutionTotalTime() {
+			return totalMillis;
+		}
+
+		@Override
+		public long getCacheHitCount() {
+			return 0;
+		}
+
+		@Override
+		public long getCacheMissCount() {
+			return 0;
+		}
+
+		@Override
+		public long getCachePutCount() {
+			return 0;
+		}
+	}
+
+	private enum EmptyCollectionView implements CollectionStatistics {
+		INSTANCE;
+
+		@Override
+		public long getLoadCount() {
+			return 0;
+		}
+
+		@Override
+		public long getFetchCount() {
+			return 0;
+		}
+
+		@Override
+		public long getRecreateCount() {
+			return 0;
+		}
+
+		@Override
+		public long getRemoveCount() {
+			return 0;
+		}
+
+		@Override
+		public long getUpdateCount() {
+			return 0;
+		}
+
+		@Override
+		public String getCacheRegionName() {
+			return null;
+		}
+
+		@Override
+		public long getCachePutCount() {
+			return NOT_CACHED_COUNT;
+		}
+
+		@Override
+		public long getCacheHitCount() {
+			return NOT_CACHED_COUNT;
+		}
+
+		@Override
+		public long getCacheMissCount() {
+			return NOT_CACHED_COUNT;
+		}
+	}
+
+	private enum EmptyNaturalIdView implements NaturalIdStatistics {
+		INSTANCE;
+
+		@Override
+		public long getExecutionCount() {
+			return 0;
+		}
+
+		@Override
+		public long getExecutionAvgTime() {
+			return 0;
+		}
+
+		@Override
+		public long getExecutionMaxTime() {
+			return 0;
+		}
+
+		@Override
+		public long getExecutionMinTime() {
+			return 0;
+		}
+
+		@Override
+		public String getCacheRegionName() {
+			return null;
+		}
+
+		@Override
+		public long getCachePutCount() {
+			return NOT_CACHED_COUNT;
+		}
+
+		@Override
+		public long getCacheHitCount() {
+			return NOT_CACHED_COUNT;
+		}
+
+		@Override
+		public long getCacheMissCount() {
+			return NOT_CACHED_COUNT;
+		}
+	}
+
+	private record EmptyRegionView(String regionName) implements CacheRegionStatistics {
+
+		@Override
+		public String getRegionName() {
+			return regionName;
+		}
+
+		@Override
+		public long getPutCount() {
+			return 0;
+		}
+
+		@Override
+		public long getHitCount() {
+			return 0;
+		}
+
+		@Override
+		public long getMissCount() {
+			return 0;
+		}
+
+		@Override
+		public long getElementCountInMemory() {
+			return NO_EXTENDED_STAT_SUPPORT_RETURN;
+		}
+
+		@Override
+		public long getElementCountOnDisk() {
+			return NO_EXTENDED_STAT_SUPPORT_RETURN;
+		}
+
+		@Override
+		public long getSizeInMemory() {
+			return NO_EXTENDED_STAT_SUPPORT_RETURN;
+		}
+	}
+
+	@Override
+	public String[] getQueries() {
+		return queries.keySet().toArray(String[]::new);
+	}
+
+	@Override
+	public String[] getEntityNames() {
+		return entities.keySet().toArray(String[]::new);
+	}
+
+	@Override
+	public String[] getCollectionRoleNames() {
+		return new String[0];
+	}
+
+	@Override
+	public String[] getSecondLevelCacheRegionNames() {
+		return new String[0];
+	}
+
+	// Global counters
+
+	@Override
+	public long getEntityDeleteCount() {
+		return entityDeleteCount.sum();
+	}
+
+	@Override
+	public long getEntityInsertCount() {
+		return entityInsertCount.sum();
+	}
+
+	@Override
+	public long getEntityLoadCount() {
+		return entityLoadCount.sum();
+	}
+
+	@Override
+	public long getEntityFetchCount() {
+		return entityFetchCount.sum();
+	}
+
+	@Override
+	public long getEntityUpdateCount() {
+		return entityUpdateCount.sum();
+	}
+
+	@Override
+	public long getQueryExecutionCount() {
+		return queryExecutionCount.sum();
+	}
+
+	@Override
+	public long getQueryExecutionMaxTime() {
+		return queryExecutionMaxTime.get();
+	}
+
+	@Override
+	public String getQueryExecutionMaxTimeQueryString() {
+		return queryExecutionMaxTimeQueryString;
+	}
+
+	@Override
+	public long getQueryCacheHitCount() {
+		return queryCacheHitCount.sum();
+	}
+
+	@Override
+	public long getQueryCacheMissCount() {
+		return queryCacheMissCount.sum();
+	}
+
+	@Override
+	public long getQueryCachePutCount() {
+		return queryCachePutCount.sum();
+	}
+
+	@Override
+	public long getNaturalIdQueryExecutionCount() {
+		return naturalIdQueryExecutionCount.sum();
+	}
+
+	@Override
+	public long getNaturalIdQueryExecutionMaxTime() {
+		return naturalIdQueryExecutionMaxTime.get();
+	}
+
+	@Override
+	public String getNaturalIdQueryExecutionMaxTimeRegion() {
+		return null;
+	}
+
+	@Override
+	public String getNaturalIdQueryExecutionMaxTimeEntity() {
+		return null;
+	}
+
+	@Override
+	public long getNaturalIdCacheHitCount() {
+		return naturalIdCacheHitCount.sum();
+	}
+
+	@Override
+	public long getNaturalIdCacheMissCount() {
+		return naturalIdCacheMissCount.sum();
+	}
+
+	@Override
+	public long getNaturalIdCachePutCount() {
+		return naturalIdCachePutCount.sum();
+	}
+
+	@Override
+	public long getUpdateTimestampsCacheHitCount() {
+		return updateTimestampsCacheHitCount.sum();
+	}
+
+	@Override
+	public long getUpdateTimestampsCacheMissCount() {
+		return updateTimestampsCacheMissCount.sum();
+	}
+
+	@Override
+	public long getUpdateTimestampsCachePutCount() {
+		return updateTimestampsCachePutCount.sum();
+	}
+
+	@Override
+	public long getFlushCount() {
+		return flushCount.sum();
+	}
+
+	@Override
+	public long getConnectCount() {
+		return connectCount.sum();
+	}
+
+	@Override
+	public long getSecondLevelCacheHitCount() {
+		return secondLevelCacheHitCount.sum();
+	}
+
+	@Override
+	public long getSecondLevelCacheMissCount() {
+		return secondLevelCacheMissCount.sum();
+	}
+
+	@Override
+	public long getSecondLevelCachePutCount() {
+		return secondLevelCachePutCount.sum();
+	}
+
+	@Override
+	public long getSessionCloseCount() {
+		return sessionCloseCount.sum();
+	}
+
+	@Override
+	public long getSessionOpenCount() {
+		return sessionOpenCount.sum();
+	}
+
+	@Override
+	public long getCollectionLoadCount() {
+		return collectionLoadCount.sum();
+	}
+
+	@Override
+	public long getCollectionFetchCount() {
+		return collectionFetchCount.sum();
+	}
+
+	@Override
+	public long getCollectionUpdateCount() {
+		return collectionUpdateCount.sum();
+	}
+
+	@Override
+	public long getCollectionRemoveCount() {
+		return collectionRemoveCount.sum();
+	}
+
+	@Override
+	public long getCollectionRecreateCount() {
+		return collectionRecreateCount.sum();
+	}
+
+	@Override
+	public Instant getStart() {
+		return start;
+	}
+
+	@Override
+	@Deprecated
+	public long getStartTime() {
+		return start.toEpochMilli();
+	}
+
+	@Override
+	public long getSuccessfulTransactionCount() {
+		return successfulTransactionCount.sum();
+	}
+
+	@Override
+	public long getTransactionCount() {
+		return transactionCount.sum();
+	}
+
+	@Override
+	public long getPrepareStatementCount() {
+		return prepareStatementCount.sum();
+	}
+
+	@Override
+	public long getCloseStatementCount() {
+		return closeStatementCount.sum();
+	}
+
+	@Override
+	public long getOptimisticFailureCount() {
+		return optimisticFailureCount.sum();
+	}
+
+	@Override
+	public long getQueryPlanCacheHitCount() {
+		return queryPlanCacheHitCount.sum();
+	}
+
+	@Override
+	public long getQueryPlanCacheMissCount() {
+		return queryPlanCacheMissCount.sum();
+	}
+}
@@ -0,0 +1,115 @@
+package app.reactor;
+
+import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+import lombok.extern.slf4j.Slf4j;
+import net.openhft.chronicle.map.ChronicleMap;
+import net.openhft.chronicle.map.ChronicleMapBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Single producer / single consumer FIFO of UuidV6Entity kept in a memory-mapped Chronicle Map file.
+ * Entries are keyed by their position and removed once read, so only the part the consumer has not reached yet
+ * takes space in the file, and none of it is on the heap.
+ */
+@Slf4j
+class ChronicleSpillBuffer implements AutoCloseable {
+
+	private static final int AVERAGE_VALUE_SIZE = 128; // 16 bytes of uuid + ~100 chars of text
+
+	private final File file;
+	private final ChronicleMap<Long, byte[]> map;
+	// one permit per written entry, plus one when the writer is done
+	private final Semaphore available = new Semaphore(0);
+	private volatile long written;
+	private volatile boolean writerDone;
+	private volatile Throwable writerFailure;
+	private long read;
+
+	ChronicleSpillBuffer(long expectedEntries) {
+		try {
+			this.file = Files.createTempFile("uuid-v6-entity-", ".cm3").toFile();
+			this.map = ChronicleMapBuilder.of(Long.class, byte[].class)
+					.name("uuid-v6-entity-buffer")
+					.entries(Math.max(1_000, expectedEntries))
+					.averageValueSize(AVERAGE_VALUE_SIZE)
+					.maxBloatFactor(2)
+					.createPersistedTo(file);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		log.info("Spilling up to {} entities to {}", expectedEntries, file);
+	}
+
+	/**
+	 * Called by the writer thread only.
+	 */
+	void append(UuidV6Entity entity) {
+		map.put(written, encode(entity));
+		written++;
+		available.release();
+	}
+
+	void complete(Throwable failure) {
+		writerFailure = failure;
+		writerDone = true;
+		available.release();
+	}
+
+	/**
+	 * Called by the consumer thread only, blocks until the writer has appended the next entity.
+	 *
+	 * @return the next entity, or null when the writer is done and everything has been read
+	 */
+	UuidV6Entity take() throws InterruptedException {
+		available.acquire();
+		if (read < written) {
+			return decode(map.remove(read++));
+		}
+		if (writerFailure != null) {
+			throw new IllegalStateException("Reading from the database failed", writerFailure);
+		}
+		return null; // only the completion permit is left
+	}
+
+	long backlog() {
+		return written - read;
+	}
+
+	@Override
+	public void close() {
+		map.close();
+		if (!file.delete()) {
+			log.warn("Could not delete {}", file);
+		}
+	}
+
+	private static byte[] encode(UuidV6Entity entity) {
+		byte[] text = entity.getText() == null ? null : entity.getText().getBytes(StandardCharsets.UTF_8);
+		ByteBuffer buffer = ByteBuffer.allocate(16 + 1 + (text == null ? 0 : text.length));
+		buffer.putLong(entity.getId().getMostSignificantBits());
+		buffer.putLong(entity.getId().getLeastSignificantBits());
+		buffer.put((byte) (text == null ? 0 : 1));
+		if (text != null) {
+			buffer.put(text);
+		}
+		return buffer.array();
+	}
+
+	private static UuidV6Entity decode(byte[] bytes) {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		UuidV6Entity entity = new UuidV6Entity();
+		entity.setId(new UUID(buffer.getLong(), buffer.getLong()));
+		if (buffer.get() == 1) {
+			entity.setText(new String(bytes, buffer.position(), buffer.remaining(), StandardCharsets.UTF_8));
+		}
+		return entity;
+	}
+}
@@ -0,0 +1,91 @@
+package app.reactor;
+
+import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.SelectionQuery;
+import reactor.core.publisher.Flux;
+
+import java.util.function.Function;
+
+/**
+ * A Flux over a server side cursor that only reads when the subscriber asks for it.
+ * <p>
+ * {@code Flux.fromStream(query.stream())} drains the stream as fast as the operators downstream buffer it.
+ * Here every row is produced by {@link Flux#generate}, which is only called for requested elements, and the cursor is
+ * a forward-only {@link ScrollableResults} with a fetch size of {@code chunkSize}: Postgres is asked for the next
+ * chunk only once the previous one has been requested and emitted. At most one chunk plus the outstanding demand
+ * is in memory. The transaction is committed on completion and rolled back on cancel or error, the session is
+ * always closed.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class DemandDrivenEntityProducer {
+
+	private final SessionFactory sessionFactory;
+	private final int chunkSize;
+
+	public Flux<UuidV6Entity> publish() {
+		return scroll(sessionFactory, session -> session.createSelectionQuery("from UuidV6Entity", UuidV6Entity.class), chunkSize);
+	}
+
+	public static <T> Flux<T> scroll(SessionFactory sessionFactory, Function<StatelessSession, SelectionQuery<T>> queryFactory,
+			int chunkSize) {
+		return Flux.generate(() -> new Cursor<>(sessionFactory.openStatelessSession(), queryFactory, chunkSize),
+				(cursor, sink) -> {
+					if (cursor.results.next()) {
+						sink.next(cursor.results.get());
+					} else {
+						cursor.exhausted = true;
+						sink.complete();
+					}
+					return cursor;
+				},
+				Cursor::close);
+	}
+
+	private static final class Cursor<T> {
+		private final StatelessSession session;
+		private final Transaction transaction;
+		private final ScrollableResults<T> results;
+		private boolean exhausted;
+
+		private Cursor(StatelessSession session, Function<StatelessSession, SelectionQuery<T>> queryFactory, int chunkSize) {
+			this.session = session;
+			try {
+				this.transaction = session.beginTransaction(); // Postgres only uses a cursor outside of auto-commit
+				this.results = queryFactory.apply(session)
+						.setFetchSize(chunkSize)
+						.scroll(ScrollMode.FORWARD_ONLY);
+			} catch (RuntimeException e) {
+				try {
+					if (session.getTransaction().isActive()) {
+						session.getTransaction().rollback();
+					}
+				} finally {
+					session.close();
+				}
+				throw e;
+			}
+		}
+
+		private void close() {
+			try {
+				results.close();
+				if (exhausted) {
+					transaction.commit();
+				} else {
+					log.info("Cursor cancelled or failed, rolling back");
+					transaction.rollback();
+				}
+			} finally {
+				session.close();
+			}
+		}
+	}
+}
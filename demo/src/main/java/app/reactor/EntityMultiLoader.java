@@ -0,0 +1,111 @@
+package app.reactor;
+
+import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.type.BasicType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Loads UuidV6Entity rows by id with one query per chunk of ids: {@code where id = any(?)}, all the ids of the chunk
+ * bound as a single {@code uuid[]} parameter.
+ * <p>
+ * A get per id is a round trip per id. An {@code in (?, ?, ...)} list is a different statement for every number of
+ * ids, each one parsed and planned again, and pgjdbc only prepares a statement on the server once the same SQL has
+ * been executed prepareThreshold times. Here the SQL never changes, whatever the number of ids.
+ * <p>
+ * Chunks keep the array and the result set of one query bounded. The entities come back in the order of the ids,
+ * an id without a row is skipped and an id given twice gives its entity twice.
+ */
+@Slf4j
+public class EntityMultiLoader {
+
+	public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+	private static final String SQL = "select * from UUID_V6_ENTITY where id = any(:ids)";
+
+	private final SessionFactory sessionFactory;
+	private final int chunkSize;
+	private final int concurrency;
+	private final BasicType<UUID[]> uuidArrayType;
+
+	public EntityMultiLoader(SessionFactory sessionFactory) {
+		this(sessionFactory, DEFAULT_CHUNK_SIZE, 1);
+	}
+
+	/**
+	 * @param concurrency chunks of the {@link #lookup()} operator queried at the same time, each on its own connection
+	 */
+	public EntityMultiLoader(SessionFactory sessionFactory, int chunkSize, int concurrency) {
+		if (chunkSize < 1 || concurrency < 1) {
+			throw new IllegalArgumentException("chunkSize and concurrency must be positive");
+		}
+		this.sessionFactory = sessionFactory;
+		this.chunkSize = chunkSize;
+		this.concurrency = concurrency;
+		this.uuidArrayType = sessionFactory.unwrap(SessionFactoryImplementor.class)
+				.getTypeConfiguration()
+				.standardBasicTypeForJavaType(UUID[].class);
+	}
+
+	/**
+	 * Every chunk in one read transaction.
+	 */
+	public List<UuidV6Entity> findAll(List<UUID> ids) {
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		return sessionFactory.fromStatelessTransaction(session -> {
+			List<UuidV6Entity> entities = new ArrayList<>(ids.size());
+			for (int from = 0; from < ids.size(); from += chunkSize) {
+				entities.addAll(findChunk(session, ids.subList(from, Math.min(ids.size(), from + chunkSize))));
+			}
+			return entities;
+		});
+	}
+
+	/**
+	 * {@code Flux<UUID> -> Flux<UuidV6Entity>}, for {@link Flux#transform}: the ids are buffered into chunks, each chunk
+	 * is a query in its own transaction on the bounded elastic scheduler. Up to {@code concurrency} chunks are queried
+	 * at once, the entities are still emitted in the order of the ids.
+	 */
+	public Function<Flux<UUID>, Flux<UuidV6Entity>> lookup() {
+		return ids -> ids
+				.buffer(chunkSize)
+				.flatMapSequential(chunk -> Mono.fromCallable(() -> sessionFactory.fromStatelessTransaction(session -> findChunk(session, chunk)))
+						.subscribeOn(Schedulers.boundedElastic()), concurrency)
+				.concatMapIterable(entities -> entities);
+	}
+
+	private List<UuidV6Entity> findChunk(StatelessSession session, List<UUID> ids) {
+		UUID[] distinctIds = ids.stream().distinct().toArray(UUID[]::new);
+		List<UuidV6Entity> rows = session.createNativeQuery(SQL, UuidV6Entity.class)
+				.setParameter("ids", distinctIds, uuidArrayType)
+				.setFetchSize(distinctIds.length)
+				.getResultList();
+		Map<UUID, UuidV6Entity> byId = HashMap.newHashMap(rows.size());
+		rows.forEach(entity -> byId.put(entity.getId(), entity));
+		List<UuidV6Entity> entities = new ArrayList<>(ids.size());
+		for (UUID id : ids) {
+			UuidV6Entity entity = byId.get(id);
+			if (entity != null) {
+				entities.add(entity);
+			}
+		}
+		if (rows.size() < distinctIds.length) {
+			log.debug("{} of {} ids not found", distinctIds.length - rows.size(), distinctIds.length);
+		}
+		return entities;
+	}
+}
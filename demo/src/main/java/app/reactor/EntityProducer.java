@@ -1,6 +1,7 @@
 package app.reactor;
 
 import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+import app.jfr.CursorFetchEvents;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.SessionFactory;
@@ -25,7 +26,8 @@ public class EntityProducer {
     private Publisher<UuidV6Entity> streamData(StatelessSession session) {
         String hql = "from UuidV6Entity";
         Query<UuidV6Entity> query = session.createQuery(hql, UuidV6Entity.class).setFetchSize(10);
-		return Flux.fromStream(query.stream());
+		return Flux.fromStream(CursorFetchEvents.instrument(query.stream(), "EntityProducer", 10,
+				CursorFetchEvents::estimatedBytes));
 	}
 
     private Stream<UuidV6Entity> getCatStream(StatelessSession session) {
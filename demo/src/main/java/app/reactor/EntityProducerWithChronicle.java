@@ -5,26 +5,98 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.SessionFactory;
 import org.hibernate.StatelessSession;
-import org.hibernate.query.Query;
-import org.reactivestreams.Publisher;
+import org.hibernate.Transaction;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
-//TODO
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+/**
+ * Decouples the database scan from slow consumers with a file backed Chronicle buffer.
+ * The reader streams the table into the buffer at full speed on its own thread and commits as soon as it is done,
+ * while subscribers drain the buffer at their own pace: entities are only decoded when downstream requests them,
+ * so the heap stays flat whatever the table size or the consumer speed.
+ */
 @RequiredArgsConstructor
 @Slf4j
 public class EntityProducerWithChronicle {
 
-	private final SessionFactory sessionFactory;
+	private static final int FETCH_SIZE = 1000;
 
-    public Flux<UuidV6Entity> publish() {
-		return Flux.using(sessionFactory::openStatelessSession, this::streamData, StatelessSession::close);
+	private final SessionFactory sessionFactory;
 
+	public Flux<UuidV6Entity> publish() {
+		return Flux.using(BufferedScan::new, this::drain, BufferedScan::close);
 	}
 
-    private Publisher<UuidV6Entity> streamData(StatelessSession session) {
-        String hql = "from UuidV6Entity";
-        Query<UuidV6Entity> query = session.createQuery(hql, UuidV6Entity.class).setFetchSize(10);
-		return Flux.fromStream(query.stream());
+	private Flux<UuidV6Entity> drain(BufferedScan scan) {
+		// generate is only called on request(n), that is our backpressure; take() blocks so we stay off the caller thread
+		return Flux.<UuidV6Entity>generate(sink -> {
+					try {
+						UuidV6Entity next = scan.buffer.take();
+						if (next == null) {
+							sink.complete();
+						} else {
+							sink.next(next);
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						sink.error(e);
+					} catch (RuntimeException e) {
+						sink.error(e);
+					}
+				})
+				.subscribeOn(Schedulers.boundedElastic());
 	}
 
-}
\ No newline at end of file
+	private final class BufferedScan {
+		private final ChronicleSpillBuffer buffer;
+		private final CountDownLatch readerDone = new CountDownLatch(1);
+		private volatile boolean cancelled;
+
+		private BufferedScan() {
+			StatelessSession session = sessionFactory.openStatelessSession();
+			Transaction transaction = session.beginTransaction();
+			try {
+				long count = session.createNativeQuery("select count(*) from UUID_V6_ENTITY", long.class).getSingleResult();
+				// rows committed between the count and the scan are covered by the bloat factor of the map
+				buffer = new ChronicleSpillBuffer(count + count / 10);
+			} catch (RuntimeException e) {
+				transaction.rollback();
+				session.close();
+				throw e;
+			}
+			Schedulers.boundedElastic().schedule(() -> read(session, transaction));
+		}
+
+		private void read(StatelessSession session, Transaction transaction) {
+			Throwable failure = null;
+			try (Stream<UuidV6Entity> stream = session.createQuery("from UuidV6Entity", UuidV6Entity.class)
+					.setFetchSize(FETCH_SIZE)
+					.stream()) {
+				stream.takeWhile(entity -> !cancelled).forEach(buffer::append);
+				transaction.commit();
+				log.info("Table read into the buffer, transaction closed");
+			} catch (RuntimeException e) {
+				failure = e;
+				transaction.rollback();
+			} finally {
+				session.close();
+				buffer.complete(failure);
+				readerDone.countDown();
+			}
+		}
+
+		private void close() {
+			cancelled = true;
+			try {
+				readerDone.await(); // the reader must not write into a closed map
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			log.info("Closing buffer, {} entities were not consumed", buffer.backlog());
+			buffer.close();
+		}
+	}
+}
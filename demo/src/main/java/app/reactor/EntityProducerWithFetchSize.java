@@ -1,30 +1,160 @@
 package app.reactor;
 
 import app.entity.hibernate.identifier.assigned.UuidV6Entity;
-import lombok.RequiredArgsConstructor;
+import app.jfr.CursorFetchEvent;
+import app.jfr.CursorFetchEvents;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.SessionFactory;
 import org.hibernate.StatelessSession;
-import org.hibernate.query.Query;
-import org.reactivestreams.Publisher;
+import org.hibernate.Transaction;
 import reactor.core.publisher.Flux;
 
-//TODO
-@RequiredArgsConstructor
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Streams UUID_V6_ENTITY with a fetch size that is adjusted while reading by a {@link FetchSizeController}.
+ * Hibernate does not give access to the ResultSet of a query stream, so the cursor is read with plain JDBC:
+ * pgjdbc uses the fetch size of the ResultSet for every subsequent round trip, so it can be changed on the fly.
+ * Every subscription reads its own cursor with its own controller, concurrent cursors do not share their measures.
+ */
 @Slf4j
 public class EntityProducerWithFetchSize {
 
+	private static final String SELECT_SQL = "select id, text from UUID_V6_ENTITY";
+
 	private final SessionFactory sessionFactory;
+	private final Supplier<FetchSizeController> controllers;
+	private volatile FetchSizeController lastController;
 
-    public Flux<UuidV6Entity> publish() {
-		return Flux.using(sessionFactory::openStatelessSession, this::streamData, StatelessSession::close);
+	public EntityProducerWithFetchSize(SessionFactory sessionFactory) {
+		this(sessionFactory, FetchSizeController::withDefaults);
+	}
 
+	/**
+	 * @param controllers a new controller for every cursor
+	 */
+	public EntityProducerWithFetchSize(SessionFactory sessionFactory, Supplier<FetchSizeController> controllers) {
+		this.sessionFactory = sessionFactory;
+		this.controllers = controllers;
 	}
 
-    private Publisher<UuidV6Entity> streamData(StatelessSession session) {
-        String hql = "from UuidV6Entity";
-        Query<UuidV6Entity> query = session.createQuery(hql, UuidV6Entity.class).setFetchSize(10);
-		return Flux.fromStream(query.stream());
+	/**
+	 * What the controller of the cursor opened last measured and decided, null before the first cursor.
+	 */
+	public FetchSizeController.Metrics lastMetrics() {
+		FetchSizeController controller = lastController;
+		return controller == null ? null : controller.metrics();
 	}
 
-}
\ No newline at end of file
+	public Flux<UuidV6Entity> publish() {
+		return Flux.using(sessionFactory::openStatelessSession, this::streamData, StatelessSession::close);
+	}
+
+	private Flux<UuidV6Entity> streamData(StatelessSession session) {
+		return Flux.generate(() -> new AdaptiveCursor(session), (cursor, sink) -> {
+			try {
+				UuidV6Entity next = cursor.next();
+				if (next == null) {
+					sink.complete();
+				} else {
+					sink.next(next);
+				}
+			} catch (SQLException e) {
+				sink.error(e);
+			}
+			return cursor;
+		}, AdaptiveCursor::close);
+	}
+
+	private final class AdaptiveCursor {
+		private final FetchSizeController controller = controllers.get();
+		private final Transaction transaction;
+		private final PreparedStatement statement;
+		private final ResultSet resultSet;
+		// rows of the last fetch that have not been read yet, when 0 the next call to next() is a round trip
+		private int remaining;
+		private int fetchedRows;
+		private long fetchedBytes;
+		private long fetchNanos;
+		private CursorFetchEvent fetchEvent;
+
+		private AdaptiveCursor(StatelessSession session) {
+			lastController = controller;
+			this.transaction = session.beginTransaction(); // cursors only work outside of auto-commit
+			int initialFetchSize = controller.currentFetchSize();
+			beginFetchEvent(initialFetchSize);
+			long start = System.nanoTime();
+			this.statement = session.doReturningWork(connection -> connection.prepareStatement(SELECT_SQL));
+			try {
+				statement.setFetchSize(initialFetchSize);
+				this.resultSet = statement.executeQuery(); // executes and fetches the first batch
+			} catch (SQLException e) {
+				close();
+				throw new IllegalStateException(e);
+			}
+			this.fetchNanos = System.nanoTime() - start;
+			this.remaining = initialFetchSize;
+			fetchEvent.end();
+		}
+
+		UuidV6Entity next() throws SQLException {
+			boolean roundTrip = remaining == 0;
+			long start = roundTrip ? System.nanoTime() : 0;
+			if (roundTrip) {
+				commitFetchEvent();
+				int fetchSize = controller.onFetch(fetchedRows, fetchedBytes, fetchNanos);
+				beginFetchEvent(fetchSize);
+				resultSet.setFetchSize(fetchSize);
+				remaining = fetchSize;
+				fetchedRows = 0;
+				fetchedBytes = 0;
+			}
+			boolean hasNext = resultSet.next();
+			if (roundTrip) {
+				fetchNanos = System.nanoTime() - start;
+				fetchEvent.end();
+			}
+			if (!hasNext) {
+				return null;
+			}
+			remaining--;
+			UuidV6Entity entity = new UuidV6Entity();
+			entity.setId(resultSet.getObject(1, UUID.class));
+			entity.setText(resultSet.getString(2));
+			fetchedRows++;
+			fetchedBytes += CursorFetchEvents.estimatedBytes(entity);
+			return entity;
+		}
+
+		private void beginFetchEvent(int fetchSize) {
+			fetchEvent = new CursorFetchEvent("EntityProducerWithFetchSize", fetchSize);
+			fetchEvent.begin();
+		}
+
+		private void commitFetchEvent() {
+			if (fetchEvent.shouldCommit() && fetchedRows > 0) {
+				fetchEvent.setRows(fetchedRows, fetchedBytes);
+				fetchEvent.commit();
+			}
+		}
+
+		void close() {
+			commitFetchEvent();
+			try {
+				if (resultSet != null) {
+					resultSet.close();
+				}
+				statement.close();
+				transaction.commit();
+			} catch (SQLException e) {
+				transaction.rollback();
+				log.error("Failed to close cursor", e);
+			}
+			log.info("Cursor closed, fetch size metrics: {}", controller.metrics());
+		}
+	}
+}
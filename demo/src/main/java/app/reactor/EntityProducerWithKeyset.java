@@ -0,0 +1,46 @@
+package app.reactor;
+
+import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads UUID_V6_ENTITY page by page: where id > :last order by id limit :pageSize.
+ * UUIDv6 keys are time ordered, so the primary key index gives the pages in insertion order, and every page is
+ * a short transaction of its own instead of one cursor held open for the whole scan.
+ * A scan can be resumed with {@link #publishFrom(UUID)} and the last id that was processed.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class EntityProducerWithKeyset {
+
+	// Postgres compares uuids byte by byte, nothing sorts before the nil uuid
+	public static final UUID FIRST_KEY = new UUID(0, 0);
+
+	private final SessionFactory sessionFactory;
+	private final int pageSize;
+
+	public Flux<UuidV6Entity> publish() {
+		return publishFrom(FIRST_KEY);
+	}
+
+	public Flux<UuidV6Entity> publishFrom(UUID after) {
+		return fetchPage(after)
+				.expand(page -> page.size() < pageSize ? Mono.empty() : fetchPage(page.get(page.size() - 1).getId()))
+				.concatMapIterable(page -> page);
+	}
+
+	private Mono<List<UuidV6Entity>> fetchPage(UUID after) {
+		return Mono.fromCallable(() -> sessionFactory.fromStatelessTransaction(session -> session
+				.createQuery("from UuidV6Entity where id > :last order by id", UuidV6Entity.class)
+				.setParameter("last", after)
+				.setMaxResults(pageSize)
+				.getResultList()));
+	}
+}
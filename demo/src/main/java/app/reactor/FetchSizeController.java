@@ -0,0 +1,103 @@
+package app.reactor;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks the JDBC fetch size of a streaming read from what it measures on every round trip:
+ * <ul>
+ *     <li>row width: a fetch should stay within {@code memoryBudgetBytes}</li>
+ *     <li>heap headroom: a fetch should never take more than {@code heapFraction} of the free heap</li>
+ *     <li>round trip latency: the fixed cost of a fetch should stay below {@code latencyOverhead} of its transfer
+ *     time, otherwise the fetch size is grown</li>
+ * </ul>
+ * The result is clamped to [minFetchSize, maxFetchSize]. The averages are those of one cursor: one instance per cursor,
+ * {@link #onFetch} is not thread-safe, {@link #metrics()} can be read from any thread.
+ */
+@Slf4j
+public class FetchSizeController {
+
+	private static final double EWMA_WEIGHT = 0.3;
+
+	private final long memoryBudgetBytes;
+	private final double heapFraction;
+	private final double latencyOverhead;
+	private final int minFetchSize;
+	private final int maxFetchSize;
+
+	private volatile Metrics metrics;
+	private double avgRowBytes;
+	private double perRowNanos;
+	private long minFetchNanos = Long.MAX_VALUE;
+
+	/**
+	 * What the controller measured and decided last, for dashboards and logs.
+	 */
+	public record Metrics(int fetchSize, long fetches, long adjustments, double avgRowBytes, double roundTripMillis,
+						  long heapHeadroomBytes) {
+	}
+
+	public FetchSizeController(int initialFetchSize, int minFetchSize, int maxFetchSize, long memoryBudgetBytes,
+			double heapFraction, double latencyOverhead) {
+		this.minFetchSize = minFetchSize;
+		this.maxFetchSize = maxFetchSize;
+		this.memoryBudgetBytes = memoryBudgetBytes;
+		this.heapFraction = heapFraction;
+		this.latencyOverhead = latencyOverhead;
+		this.metrics = new Metrics(Math.clamp(initialFetchSize, minFetchSize, maxFetchSize), 0, 0, 0, 0, heapHeadroom());
+	}
+
+	/**
+	 * 100 rows to start with, at most 16 MB or 10% of the free heap per fetch, latency below 10% of a fetch.
+	 */
+	public static FetchSizeController withDefaults() {
+		return new FetchSizeController(100, 10, 100_000, 16 * 1024 * 1024, 0.1, 0.1);
+	}
+
+	public int currentFetchSize() {
+		return metrics.fetchSize();
+	}
+
+	public Metrics metrics() {
+		return metrics;
+	}
+
+	/**
+	 * Records one fetch: the rows it returned, their approximate size and how long the round trip took.
+	 *
+	 * @return the fetch size to use for the next round trip
+	 */
+	public int onFetch(int rows, long bytes, long fetchNanos) {
+		Metrics previous = metrics;
+		if (rows == 0) {
+			return previous.fetchSize();
+		}
+		avgRowBytes = ewma(avgRowBytes, (double) bytes / rows);
+		perRowNanos = ewma(perRowNanos, (double) fetchNanos / rows);
+		// the cheapest fetch seen so far is our best estimate of the fixed cost of a round trip
+		minFetchNanos = Math.min(minFetchNanos, fetchNanos);
+
+		long headroom = heapHeadroom();
+		long byMemory = (long) (memoryBudgetBytes / avgRowBytes);
+		long byHeap = (long) (headroom * heapFraction / avgRowBytes);
+		long byLatency = (long) Math.ceil(minFetchNanos / (latencyOverhead * perRowNanos));
+		int next = Math.clamp(Math.min(byLatency, Math.min(byMemory, byHeap)), minFetchSize, maxFetchSize);
+
+		boolean adjusted = next != previous.fetchSize();
+		metrics = new Metrics(next, previous.fetches() + 1, previous.adjustments() + (adjusted ? 1 : 0), avgRowBytes,
+				fetchNanos / 1_000_000.0, headroom);
+		if (adjusted) {
+			log.debug("Fetch size {} -> {} (row {} bytes, round trip {} ms, heap headroom {} MB)", previous.fetchSize(), next,
+					Math.round(avgRowBytes), fetchNanos / 1_000_000, headroom / (1024 * 1024));
+		}
+		return next;
+	}
+
+	private static double ewma(double average, double sample) {
+		return average == 0 ? sample : average + EWMA_WEIGHT * (sample - average);
+	}
+
+	private static long heapHeadroom() {
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+	}
+}
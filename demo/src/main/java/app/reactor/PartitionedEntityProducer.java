@@ -0,0 +1,184 @@
+package app.reactor;
+
+import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Scans UUID_V6_ENTITY with several connections at once: the key space is cut into ranges, every range is streamed
+ * by its own StatelessSession on a bounded elastic thread, and the ranges are merged into one Flux.
+ * The merge only requests {@code fetchSize} entities ahead per range, so memory stays bounded by
+ * partitions x fetchSize whatever the table size.
+ * <p>
+ * Ranges are computed from the first and last key of the table (uniform split of the 128-bit key space) or from a
+ * TABLESAMPLE of the keys, which follows the real distribution of the ids, e.g. when most rows were inserted in a short
+ * time window.
+ * <p>
+ * Every range is read in its own transaction, committed when the range completes and rolled back on error or cancel.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class PartitionedEntityProducer {
+
+	private static final Comparator<UUID> UNSIGNED_ORDER = Comparator
+			.comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+			.thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+	private final SessionFactory sessionFactory;
+	private final int partitions;
+	private final int fetchSize;
+
+	/**
+	 * Bounds of one partition, {@code null} means unbounded. The lower bound is inclusive, the upper one exclusive.
+	 */
+	public record UuidRange(UUID from, UUID to) {
+	}
+
+	public Flux<UuidV6Entity> publish() {
+		return Flux.defer(() -> publish(sampledRanges(1.0)));
+	}
+
+	public Flux<UuidV6Entity> publish(List<UuidRange> ranges) {
+		log.info("Scanning UUID_V6_ENTITY in {} ranges", ranges.size());
+		return Flux.merge(Flux.fromIterable(ranges).map(this::scanRange), ranges.size(), fetchSize);
+	}
+
+	/**
+	 * Splits [min, max] of the table into equal parts of the key space. Postgres has no min/max for uuid, the bounds are
+	 * the first key of the primary key index in both directions.
+	 */
+	public List<UuidRange> minMaxRanges() {
+		List<UUID> minMax = sessionFactory.fromStatelessTransaction(session -> {
+			List<UUID> bounds = new ArrayList<>(2);
+			for (String order : List.of("asc", "desc")) {
+				bounds.addAll(session.createSelectionQuery("select id from UuidV6Entity order by id " + order, UUID.class)
+						.setMaxResults(1)
+						.getResultList());
+			}
+			return bounds;
+		});
+		if (minMax.isEmpty()) {
+			return List.of(new UuidRange(null, null));
+		}
+		BigInteger min = toUnsigned(minMax.get(0));
+		BigInteger width = toUnsigned(minMax.get(1)).subtract(min);
+		List<UUID> bounds = new ArrayList<>();
+		for (int i = 1; i < partitions; i++) {
+			bounds.add(fromUnsigned(min.add(width.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(partitions)))));
+		}
+		return toRanges(bounds);
+	}
+
+	/**
+	 * Takes the quantiles of a TABLESAMPLE SYSTEM of the keys as bounds. Falls back to min/max if the sample is too small.
+	 */
+	public List<UuidRange> sampledRanges(double samplePercent) {
+		List<UUID> sample = new ArrayList<>(sessionFactory.fromStatelessSession(session -> session
+				.createNativeQuery("select id from UUID_V6_ENTITY tablesample system (:percent)", UUID.class)
+				.setParameter("percent", samplePercent)
+				.getResultList()));
+		if (sample.size() < partitions * 10) {
+			return minMaxRanges();
+		}
+		sample.sort(UNSIGNED_ORDER);
+		List<UUID> bounds = new ArrayList<>();
+		for (int i = 1; i < partitions; i++) {
+			bounds.add(sample.get(i * sample.size() / partitions));
+		}
+		return toRanges(bounds);
+	}
+
+	private Flux<UuidV6Entity> scanRange(UuidRange range) {
+		return Flux.usingWhen(Mono.fromCallable(this::openTransaction),
+						session -> Flux.fromStream(() -> rangeQuery(session, range).stream()),
+						session -> Mono.fromRunnable(() -> end(session, true)),
+						(session, error) -> Mono.fromRunnable(() -> end(session, false)),
+						session -> Mono.fromRunnable(() -> end(session, false)))
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	private StatelessSession openTransaction() {
+		StatelessSession session = sessionFactory.openStatelessSession();
+		try {
+			session.beginTransaction();
+			return session;
+		} catch (RuntimeException e) {
+			session.close();
+			throw e;
+		}
+	}
+
+	private static void end(StatelessSession session, boolean completed) {
+		try {
+			if (completed) {
+				session.getTransaction().commit();
+			} else {
+				log.info("Range scan cancelled or failed, rolling back");
+				session.getTransaction().rollback();
+			}
+		} finally {
+			session.close();
+		}
+	}
+
+	private Query<UuidV6Entity> rangeQuery(StatelessSession session, UuidRange range) {
+		StringBuilder hql = new StringBuilder("from UuidV6Entity where 1 = 1");
+		if (range.from() != null) {
+			hql.append(" and id >= :from");
+		}
+		if (range.to() != null) {
+			hql.append(" and id < :to");
+		}
+		Query<UuidV6Entity> query = session.createQuery(hql.toString(), UuidV6Entity.class).setFetchSize(fetchSize);
+		if (range.from() != null) {
+			query.setParameter("from", range.from());
+		}
+		if (range.to() != null) {
+			query.setParameter("to", range.to());
+		}
+		return query;
+	}
+
+	private static List<UuidRange> toRanges(List<UUID> bounds) {
+		List<UUID> distinct = bounds.stream().distinct().toList();
+		List<UuidRange> ranges = new ArrayList<>();
+		UUID from = null;
+		for (UUID bound : distinct) {
+			ranges.add(new UuidRange(from, bound));
+			from = bound;
+		}
+		ranges.add(new UuidRange(from, null));
+		return ranges;
+	}
+
+	private static BigInteger toUnsigned(UUID uuid) {
+		return new BigInteger(1, ByteBuffer.allocate(16)
+				.putLong(uuid.getMostSignificantBits())
+				.putLong(uuid.getLeastSignificantBits())
+				.array());
+	}
+
+	private static UUID fromUnsigned(BigInteger value) {
+		byte[] bytes = value.toByteArray();
+		ByteBuffer buffer = ByteBuffer.allocate(16);
+		// toByteArray adds a sign byte or drops leading zeros, keep the 16 least significant bytes
+		int length = Math.min(bytes.length, 16);
+		buffer.position(16 - length);
+		buffer.put(bytes, bytes.length - length, length);
+		buffer.flip();
+		return new UUID(buffer.getLong(), buffer.getLong());
+	}
+}
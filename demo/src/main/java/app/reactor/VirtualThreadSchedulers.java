@@ -0,0 +1,31 @@
+package app.reactor;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Reactor schedulers running every task on a new virtual thread.
+ * A blocking call (JDBC, Thread.sleep, HTTP) only parks the virtual thread, so thousands of them can wait at the same
+ * time on a handful of carrier threads. The concurrency has to be limited by the pipeline itself
+ * (e.g. {@code flatMap(..., concurrency)}), there is no pool size to do it.
+ * Note that on Java 21 a virtual thread blocking inside a synchronized block pins its carrier thread.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class VirtualThreadSchedulers {
+
+	private static final class Holder {
+		private static final Scheduler VIRTUAL = Schedulers.fromExecutorService(
+				Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("reactor-virtual-", 0).factory()), "virtual");
+	}
+
+	/**
+	 * Shared scheduler, created on first use.
+	 */
+	public static Scheduler virtual() {
+		return Holder.VIRTUAL;
+	}
+}
@@ -1,8 +1,11 @@
 package app.util;
 
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.reactivestreams.Publisher;
 
@@ -20,21 +23,46 @@ import reactor.core.publisher.Flux;
 @Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class MessageGenerator {
-	private static final Random RANDOM = new Random();
 	private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+	private static final char[] CHARACTER_ARRAY = CHARACTERS.toCharArray();
 	private static final int MESSAGE_LENGTH = 100; // Length of each message
+	// one buffer per thread, the String constructor copies it
+	private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[MESSAGE_LENGTH]);
+
+	/**
+	 * Creates the entity for the index-th message of a generated stream.
+	 */
+	@FunctionalInterface
+	public interface EntityFactory<T> {
+		T create(long index, String message);
+	}
 
 	public static String generateRandomString() {
-		StringBuilder sb = new StringBuilder(MESSAGE_LENGTH);
+		// ThreadLocalRandom instead of a shared Random, whose seed is a contended CAS
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		char[] buffer = BUFFER.get();
 		for (int i = 0; i < MESSAGE_LENGTH; i++) {
-			int index = RANDOM.nextInt(CHARACTERS.length());
-			sb.append(CHARACTERS.charAt(index));
+			buffer[i] = CHARACTER_ARRAY[random.nextInt(CHARACTER_ARRAY.length)];
 		}
-		return sb.toString();
+		return new String(buffer);
+	}
+
+	/**
+	 * Lazy stream of {@code count} entities, indexes from 1, that can be made parallel: see {@link RandomMessageSpliterator}.
+	 */
+	public static <T> Stream<T> generateStream(long count, EntityFactory<T> factory) {
+		return StreamSupport.stream(new RandomMessageSpliterator<>(1, count + 1, new SplittableRandom(),
+				CHARACTER_ARRAY, MESSAGE_LENGTH, factory), false);
+	}
+
+	/**
+	 * {@link #generateStream(long, EntityFactory)} as a Flux, generated on demand.
+	 */
+	public static <T> Flux<T> generateFlux(long count, EntityFactory<T> factory) {
+		return Flux.fromStream(() -> generateStream(count, factory));
 	}
 
 	public static IdentifiableEntity generateEntityByType(GenerationType type) {
-		log.debug("Message generated");
 		return switch (type) {
 			case IDENTITY -> new IdentityTypeEntity(generateRandomString());
 			case AUTO -> new AutoTypeEntity(generateRandomString());
@@ -44,8 +72,6 @@ public class MessageGenerator {
 		};
 	}
 
-
-
 	public static List<IdentifiableEntity> generateMessagesList(int size, GenerationType type) {
 		return IntStream.range(1, size + 1)
 				.mapToObj(integer -> MessageGenerator.generateEntityByType(type)).toList();
@@ -0,0 +1,89 @@
+package app.util;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.sun.management.OperatingSystemMXBean;
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Resource usage of a phase, from two {@link Sample}s: bytes allocated by the calling thread and by the whole JVM,
+ * GC count and pause time, process CPU time and peak RSS. Unlike {@code totalMemory - freeMemory} none of these
+ * depend on when the GC last ran.
+ */
+public final class PhaseProfiler {
+
+	private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+	private static final OperatingSystemMXBean OS = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+	// concurrent cycles run next to the application, only the pauses stop it
+	private static final List<GarbageCollectorMXBean> PAUSING_COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans()
+			.stream()
+			.filter(gc -> !gc.getName().contains("Concurrent") && !gc.getName().contains("Cycles"))
+			.toList();
+	private static final Path PROC_STATUS = Path.of("/proc/self/status");
+
+	private PhaseProfiler() {
+	}
+
+	public record Sample(long nanoTime, long threadAllocatedBytes, long totalAllocatedBytes, long gcCount, long gcMillis,
+			long cpuNanos) {
+	}
+
+	public record Usage(long wallNanos, long threadAllocatedBytes, long totalAllocatedBytes, long gcCount, long gcMillis,
+			long cpuNanos, long peakRssBytes) {
+
+		@Override
+		public String toString() {
+			return String.format("wall %d ms, allocated %d MB (this thread %d MB), GC %d (%d ms), CPU %d ms, peak RSS %s",
+					wallNanos / 1_000_000, totalAllocatedBytes >> 20, threadAllocatedBytes >> 20, gcCount, gcMillis,
+					cpuNanos / 1_000_000, peakRssBytes < 0 ? "n/a" : (peakRssBytes >> 20) + " MB");
+		}
+	}
+
+	public static Sample sample() {
+		long gcCount = 0;
+		long gcMillis = 0;
+		for (GarbageCollectorMXBean gc : PAUSING_COLLECTORS) {
+			gcCount += Math.max(0, gc.getCollectionCount());
+			gcMillis += Math.max(0, gc.getCollectionTime());
+		}
+		return new Sample(System.nanoTime(), THREADS.getCurrentThreadAllocatedBytes(), THREADS.getTotalThreadAllocatedBytes(),
+				gcCount, gcMillis, OS.getProcessCpuTime());
+	}
+
+	/**
+	 * Usage since {@code before}, to be called on the thread that took it for the per thread allocation to make sense.
+	 */
+	public static Usage since(Sample before) {
+		Sample after = sample();
+		return new Usage(after.nanoTime() - before.nanoTime(),
+				after.threadAllocatedBytes() - before.threadAllocatedBytes(),
+				after.totalAllocatedBytes() - before.totalAllocatedBytes(),
+				after.gcCount() - before.gcCount(),
+				after.gcMillis() - before.gcMillis(),
+				after.cpuNanos() - before.cpuNanos(),
+				peakRssBytes());
+	}
+
+	/**
+	 * High water mark of the resident set size of the process, -1 when not on Linux. It is never reset, so it is the
+	 * peak of the process up to the end of the phase.
+	 */
+	public static long peakRssBytes() {
+		try {
+			for (String line : Files.readAllLines(PROC_STATUS)) {
+				if (line.startsWith("VmHWM:")) {
+					return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+				}
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			// not Linux
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,81 @@
+package app.util;
+
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Lazily generates {@code [from, to)} entities with a random message, nothing is kept once handed over.
+ * <p>
+ * {@link #trySplit()} halves the range and gives the new half its own {@link SplittableRandom#split() split}
+ * generator, so parallel streams draw from independent, uncontended generators. The message is written into a char
+ * buffer of the spliterator, the only copy is the one of the String constructor.
+ */
+class RandomMessageSpliterator<T> implements Spliterator<T> {
+
+	private static final int MIN_SPLIT = 1024;
+
+	private final MessageGenerator.EntityFactory<T> factory;
+	private final SplittableRandom random;
+	private final char[] buffer;
+	private final char[] characters;
+	private long from;
+	private final long to;
+
+	RandomMessageSpliterator(long from, long to, SplittableRandom random, char[] characters, int messageLength,
+			MessageGenerator.EntityFactory<T> factory) {
+		this.from = from;
+		this.to = to;
+		this.random = random;
+		this.characters = characters;
+		this.buffer = new char[messageLength];
+		this.factory = factory;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		if (from >= to) {
+			return false;
+		}
+		action.accept(next(from++));
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super T> action) {
+		long end = to;
+		for (long index = from; index < end; index++) {
+			action.accept(next(index));
+		}
+		from = end;
+	}
+
+	private T next(long index) {
+		for (int i = 0; i < buffer.length; i++) {
+			buffer[i] = characters[random.nextInt(characters.length)];
+		}
+		return factory.create(index, new String(buffer));
+	}
+
+	@Override
+	public Spliterator<T> trySplit() {
+		long size = to - from;
+		if (size < 2 * MIN_SPLIT) {
+			return null;
+		}
+		long middle = from + size / 2;
+		Spliterator<T> prefix = new RandomMessageSpliterator<>(from, middle, random.split(), characters, buffer.length, factory);
+		from = middle;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return to - from;
+	}
+
+	@Override
+	public int characteristics() {
+		return SIZED | SUBSIZED | NONNULL | IMMUTABLE | ORDERED;
+	}
+}
@@ -1,26 +1,29 @@
 package app.util;
 
-import java.lang.management.ManagementFactory;
-import java.lang.management.OperatingSystemMXBean;
-
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Logs the {@link PhaseProfiler.Usage} between {@link Phase#BEFORE_TEST} and {@link Phase#AFTER_TEST} of the calling
+ * thread.
+ */
 @Slf4j
 public class ResourceUsageUtil {
-	public static void logResourceUsage(Phase phase) {
-		// Get memory usage
-		Runtime runtime = Runtime.getRuntime();
-		long usedMemory = runtime.totalMemory() - runtime.freeMemory();
-		long maxMemory = runtime.maxMemory();
 
-		// Get CPU usage
-		OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
-		double systemLoad = osBean.getSystemLoadAverage();
+	private static final ThreadLocal<PhaseProfiler.Sample> BEFORE = new ThreadLocal<>();
 
-		// Log the information
-		log.info("{} - Memory Used: {} MB", phase, usedMemory / (1024 * 1024));
-		log.info("{} - Max Memory: {} MB", phase, maxMemory / (1024 * 1024));
-		log.info("{} - System Load Average: {}", phase, systemLoad);
+	public static void logResourceUsage(Phase phase) {
+		switch (phase) {
+			case BEFORE_TEST -> BEFORE.set(PhaseProfiler.sample());
+			case AFTER_TEST -> {
+				PhaseProfiler.Sample before = BEFORE.get();
+				if (before == null) {
+					log.warn("{} without {}", Phase.AFTER_TEST, Phase.BEFORE_TEST);
+					return;
+				}
+				BEFORE.remove();
+				log.info("{} - {}", phase, PhaseProfiler.since(before));
+			}
+		}
 	}
 
 	public enum Phase {
@@ -0,0 +1,25 @@
+package app.util;
+
+import java.util.concurrent.TimeUnit;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ThroughputUtil {
+
+	/**
+	 * Logs the elapsed time and rows/sec since {@code startNanos} (taken from {@link System#nanoTime()}).
+	 *
+	 * @return the measured rows per second
+	 */
+	public static double logThroughput(String label, long rows, long startNanos) {
+		long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+		double rowsPerSecond = rows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+		log.info("{} - {} rows in {} ms ({} rows/s)", label, rows, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+				Math.round(rowsPerSecond));
+		return rowsPerSecond;
+	}
+}
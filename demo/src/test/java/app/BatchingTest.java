@@ -3,27 +3,65 @@ package app;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryUsage;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
 
+import app.batch.BatchSizeController;
+import app.batch.ReactiveBatchWriter.WriteSummary;
 import app.config.AppConfig;
+import app.copy.BulkUpserter.UpsertResult;
+import app.copy.ParallelCopyLoader;
+import app.copy.ParallelCopyLoader.LoadResult;
+import app.copy.ParallelCopyLoader.RangeSource;
+import app.entity.Orders;
+import app.metrics.PrometheusStatisticsExporter;
+import app.metrics.QueryMetricsListener;
+import app.metrics.SampledStatistics;
+import app.util.PhaseProfilerExtension;
+import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+import app.entity.hibernate.identifier.generated.IdentityTypeEntity;
+import app.entity.hibernate.identifier.generated.SnowflakeTypeEntity;
+import app.entity.hibernate.identifier.generated.StripedSequenceTypeEntity;
+import app.entity.hibernate.identifier.generated.UuidV7TypeEntity;
 import jakarta.persistence.GenerationType;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import reactor.core.publisher.Flux;
 
+import static app.util.MessageGenerator.generateRandomString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+
+@ExtendWith(PhaseProfilerExtension.class)
 class BatchingTest {
 
 	private static HibernateBatchingExample sut;
+	private static BinaryCopyExample copySut;
+	private static QueryMetricsListener queryMetrics;
+	private static ParallelCopyLoader parallelCopy;
 
 	@BeforeAll
 	static void setUpBeforeClass() {
 		ApplicationContext context = new AnnotationConfigApplicationContext(AppConfig.class);
 		sut = context.getBean(HibernateBatchingExample.class);
+		copySut = context.getBean(BinaryCopyExample.class);
+		queryMetrics = context.getBean(QueryMetricsListener.class);
+		parallelCopy = context.getBean(ParallelCopyLoader.class);
 	}
 
 	@Test
@@ -57,7 +95,74 @@ class BatchingTest {
 		sut.createEntitiesInBatchSize(totalSize, batchSize);
 	}
 
+	@ParameterizedTest(name = "{index}: Writing {0} rows with binary COPY")
+	@ValueSource(ints = {400, 400000})
+	void compare_total_size_with_binary_copy(int totalSize) {
+		assertEquals(totalSize, copySut.createEntitiesWithBinaryCopy(totalSize));
+	}
+
+	@Test
+	void binary_copy_orders_and_int_id_entities() {
+		assertEquals(400000, copySut.createOrdersWithBinaryCopy(400000));
+		assertEquals(400000, copySut.createIntIdEntitiesWithBinaryCopy(400000));
+	}
+
+	@ParameterizedTest(name = "{index}: Writing 400000 rows with {0} COPY shards")
+	@ValueSource(ints = {1, 2, 4, 8})
+	void parallel_binary_copy(int shards) {
+		assertEquals(400000, copySut.createEntitiesWithParallelCopy(400000, shards).rows());
+		assertEquals(400000, copySut.createEntitiesWithParallelCopyFromFlux(400000, shards).rows());
+		assertEquals(400000, copySut.createOrdersWithParallelCopy(400000, shards).rows());
+	}
+
+	@Test
+	void parallel_binary_copy_rolls_back_all_shards_and_resumes() {
+		long firstId = maxOrderId() + 1;
+		RangeSource<Orders> orders = copySut.ordersFrom(firstId);
+		LoadResult failed = parallelCopy.copyRanges(Orders.class, 40_000, 4, (from, to) -> orders.open(from, to)
+				.peek(order -> {
+					if (order.getId() == firstId + 25_000) {
+						throw new IllegalStateException("poison row");
+					}
+				}));
+		assertFalse(failed.committed());
+		assertEquals(4, failed.remaining().size());
+		assertEquals(firstId - 1, maxOrderId());
 
+		LoadResult resumed = parallelCopy.resume(Orders.class, failed, orders);
+		assertTrue(resumed.committed());
+		assertEquals(40_000, resumed.rows());
+		assertEquals(firstId + 39_999, maxOrderId());
+	}
+
+	@Test
+	void bulk_upsert_inserts_updates_and_skips_unchanged_rows() {
+		int firstId = (int) maxOrderId() + 1;
+		UpsertResult inserted = copySut.upsertOrders(firstId, 40_000, new BigDecimal("100.00"));
+		assertEquals(40_000, inserted.inserted());
+
+		// half of the ids exist already
+		UpsertResult merged = copySut.upsertOrders(firstId + 20_000, 40_000, new BigDecimal("200.00"));
+		assertEquals(20_000, merged.inserted());
+		assertEquals(20_000, merged.updated());
+
+		UpsertResult unchanged = copySut.upsertOrders(firstId + 20_000, 40_000, new BigDecimal("200.00"));
+		assertEquals(40_000, unchanged.unchanged());
+	}
+
+	@Test
+	void stateless_session_upsert() {
+		int firstId = (int) maxOrderId() + 1;
+		sut.upsertOrders(firstId, 4_000, new BigDecimal("100.00"), 100);
+		sut.upsertOrders(firstId, 4_000, new BigDecimal("200.00"), 100);
+		assertEquals(firstId + 3_999, maxOrderId());
+	}
+
+	private static long maxOrderId() {
+		return sut.sessionFactory.fromStatelessSession(session -> session
+				.createNativeQuery("select coalesce(max(id), 0) from orders", long.class)
+				.getSingleResult());
+	}
 
 	@ParameterizedTest
 	@EnumSource(value = GenerationType.class, names = {"IDENTITY", "SEQUENCE", "AUTO", "UUID"})
@@ -65,11 +170,143 @@ class BatchingTest {
 		sut.createEntitiesInBatchByGenerationType(400, 50, type);
 	}
 
+	@Test
+	void time_ordered_ids_generated_without_round_trip() {
+		sut.createEntitiesWithConcurrentWriters(4, 10_000, 50, () -> new UuidV7TypeEntity(generateRandomString()));
+		sut.createEntitiesWithConcurrentWriters(4, 10_000, 50, () -> new SnowflakeTypeEntity(generateRandomString()));
+	}
+
+	@Test
+	void striped_sequence_ids_are_unique_across_concurrent_writers() {
+		Queue<StripedSequenceTypeEntity> entities = new ConcurrentLinkedQueue<>();
+		sut.createEntitiesWithConcurrentWriters(8, 10_000, 50, () -> {
+			StripedSequenceTypeEntity entity = new StripedSequenceTypeEntity(generateRandomString());
+			entities.add(entity);
+			return entity;
+		});
+		assertEquals(80_000, entities.size());
+		assertEquals(80_000, entities.stream().map(StripedSequenceTypeEntity::getId).filter(Objects::nonNull).distinct().count());
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 50, 100})
+	void identity_batched_with_multi_row_insert(int rowsPerStatement) {
+		List<IdentityTypeEntity> inserted = sut.createIdentityEntitiesWithMultiRowInsert(400, rowsPerStatement);
+		for (int i = 1; i < inserted.size(); i++) {
+			assertTrue(inserted.get(i - 1).getId() < inserted.get(i).getId());
+		}
+		// every RETURNING id was given back to the entity of its own row
+		Map<Long, String> textById = sut.sessionFactory.fromStatelessTransaction(session -> session
+				.createSelectionQuery("from IdentityTypeEntity where id in :ids", IdentityTypeEntity.class)
+				.setParameterList("ids", inserted.stream().map(IdentityTypeEntity::getId).toList())
+				.getResultList())
+				.stream()
+				.collect(Collectors.toMap(IdentityTypeEntity::getId, IdentityTypeEntity::getText));
+		assertEquals(inserted.size(), textById.size());
+		for (IdentityTypeEntity entity : inserted) {
+			assertEquals(entity.getText(), textById.get(entity.getId()));
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 4, 8})
+	void reactive_sink_with_concurrent_batches(int maxInFlight) {
+		Flux<UuidV6Entity> entities = Flux.range(0, 40_000).map(i -> new UuidV6Entity(generateRandomString()));
+		WriteSummary<UuidV6Entity> summary = sut.writeWithReactiveSink(entities, 100, maxInFlight);
+		assertEquals(40_000, summary.written());
+	}
+
+	@Test
+	void reactive_sink_isolates_poison_rows() {
+		UuidV6Entity poison = new UuidV6Entity(); // no id
+		Flux<UuidV6Entity> entities = Flux.range(0, 1000)
+				.map(i -> i == 500 ? poison : new UuidV6Entity(generateRandomString()));
+		WriteSummary<UuidV6Entity> summary = sut.writeWithReactiveSink(entities, 100, 4);
+		assertEquals(999, summary.written());
+		assertEquals(List.of(poison), summary.rejected());
+	}
+
+	@Test
+	void adaptive_batch_size_moves_away_from_the_initial_size() {
+		int batchSize = sut.createEntitiesWithAdaptiveBatchSize(400_000, new BatchSizeController(10, 5, 800, 1.25, 3));
+		assertNotEquals(10, batchSize);
+	}
+
+	@Test
+	void adaptive_batch_size_climbs_while_throughput_improves_and_turns_around() {
+		BatchSizeController controller = new BatchSizeController(10, 5, 800, 1.25, 1);
+		controller.onFlush(10, 10_000_000);  // 1000 rows/s, better than nothing: up
+		assertEquals(13, controller.currentBatchSize());
+		controller.onFlush(13, 10_000_000);  // 1300 rows/s, better: up again
+		assertEquals(16, controller.currentBatchSize());
+		controller.onFlush(16, 20_000_000);  // 800 rows/s, worse: turn around
+		assertEquals(13, controller.currentBatchSize());
+		controller.onFlush(13, 10_000_000);  // 1300 rows/s, better: keep going down
+		assertEquals(10, controller.currentBatchSize());
+
+		BatchSizeController nearMax = new BatchSizeController(790, 5, 800, 1.25, 1);
+		nearMax.onFlush(790, 10_000_000);
+		assertEquals(800, nearMax.currentBatchSize());
+	}
+
 	@Test
 	void will_not_batch_when_mixed_statements() {
 		sut.createMixedEntities(40, 10);
 	}
 
+	@Test
+	void will_batch_mixed_statements_when_reordered() {
+		queryMetrics.reset();
+		sut.createMixedEntitiesReordered(40, 10);
+		for (String table : List.of("uuid_v6_entity", "int_id_entity")) {
+			QueryMetricsListener.StatementSnapshot insert = queryMetrics.snapshot().values().stream()
+					.filter(statement -> statement.sql().toLowerCase().startsWith("insert into " + table))
+					.findFirst()
+					.orElseThrow();
+			assertEquals(4, insert.batchSizes().count(), table);
+			assertEquals(10, insert.batchSizes().max(), table);
+			assertEquals(40, insert.rowsAffected(), table);
+		}
+	}
+
+	@Test
+	void query_metrics_record_batch_sizes_and_rows() {
+		queryMetrics.reset();
+		sut.createEntitiesInBatchSize(400, 50);
+		QueryMetricsListener.StatementSnapshot insert = queryMetrics.snapshot().values().stream()
+				.filter(statement -> statement.sql().toLowerCase().startsWith("insert into uuid_v6_entity"))
+				.findFirst()
+				.orElseThrow();
+		assertEquals(8, insert.batchSizes().count());
+		assertEquals(50, insert.batchSizes().max());
+		assertEquals(400, insert.rowsAffected());
+	}
+
+	@Test
+	void statistics_toggled_at_runtime() {
+		SampledStatistics statistics = SampledStatistics.of(sut.sessionFactory);
+		statistics.clear();
+		statistics.setStatisticsEnabled(true);
+		statistics.setEntityDetailEnabled(true);
+		try {
+			sut.createEntitiesInBatchSize(400, 50);
+		}
+		finally {
+			statistics.setStatisticsEnabled(false);
+		}
+		assertEquals(400, statistics.getEntityInsertCount());
+		assertEquals(400, statistics.entityCounts().get(UuidV6Entity.class.getName()).inserts());
+		assertEquals(400, statistics.getEntityStatistics(UuidV6Entity.class.getName()).getInsertCount());
+		assertEquals(0, statistics.getEntityStatistics("unknown").getInsertCount());
+		assertEquals(0, statistics.getCollectionStatistics("unknown").getLoadCount());
+		assertTrue(new PrometheusStatisticsExporter(statistics).scrape().contains("hibernate_entity_inserts_total 400"));
+	}
+
+	@Test
+	void streaming_insert_in_constant_memory() {
+		sut.createEntitiesStreaming(2_000_000, 100);
+	}
+
 	@Test
 	void small_batch_size_profile() {
 		sut.createEntitiesInBatchSize(400_000, 25);
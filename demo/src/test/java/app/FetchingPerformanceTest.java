@@ -1,26 +1,49 @@
 package app;
 
 import app.config.AppConfig;
+import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+import app.reactor.DemandDrivenEntityProducer;
+import app.reactor.EntityMultiLoader;
+import app.reactor.EntityProducerWithFetchSize;
+import app.reactor.EntityProducerWithKeyset;
+import app.reactor.PartitionedEntityProducer;
+import app.util.PhaseProfilerExtension;
 import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import reactor.core.publisher.Flux;
 import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 @Slf4j
+@ExtendWith(PhaseProfilerExtension.class)
 class FetchingPerformanceTest {
     private static final int BATCH_SIZE = 100; // Number of entities per batch
     private static final int PARALLELISM = 4;  // Number of parallel threads
 
     private static ReactiveStreamProcessingExamples sut;
+    private static SessionFactory sessionFactory;
+    private static org.apache.tomcat.jdbc.pool.DataSource pool;
 
     @BeforeAll
     static void setUpBeforeClass() {
         ApplicationContext context = new AnnotationConfigApplicationContext(AppConfig.class);
         sut = context.getBean(ReactiveStreamProcessingExamples.class);
+        sessionFactory = context.getBean(SessionFactory.class);
+        pool = (org.apache.tomcat.jdbc.pool.DataSource) ((ProxyDataSource) context.getBean(DataSource.class)).getDataSource();
     }
 
     @Test
@@ -57,5 +80,93 @@ class FetchingPerformanceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void keyset_pagination_examples() {
+        StepVerifier.create(new EntityProducerWithKeyset(sessionFactory, 1000).publish()
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .buffer(BATCH_SIZE)                              // Collect entities into batches of size BATCH_SIZE
+                        .flatMap(batch -> sut.processBatchAsync(batch), PARALLELISM)// Process each batch asynchronously
+                        .doOnComplete(() -> log.info("Processing complete"))
+                        .doOnError(e -> log.error("Error during processing", e)))
+                .verifyComplete();
+    }
+
+    @Test
+    void parallel_range_scan_examples() {
+        StepVerifier.create(sut.processAsyncWithParallelScan())
+                .verifyComplete();
+    }
+
+    @Test
+    void parallel_range_scan_falls_back_to_key_bounds_on_a_small_sample() {
+        PartitionedEntityProducer producer = new PartitionedEntityProducer(sessionFactory, PARALLELISM, BATCH_SIZE);
+        long rows = sessionFactory.fromStatelessTransaction(session -> session
+                .createSelectionQuery("select count(*) from UuidV6Entity", Long.class)
+                .getSingleResult());
+        // a sample of almost nothing has fewer than partitions x 10 keys, the ranges come from the first and last keys
+        StepVerifier.create(producer.publish(producer.sampledRanges(0.0001)).count())
+                .expectNext(rows)
+                .verifyComplete();
+    }
 
+    @Test
+    void adaptive_fetch_size_examples() {
+        EntityProducerWithFetchSize producer = new EntityProducerWithFetchSize(sessionFactory);
+        StepVerifier.create(producer.publish()
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .buffer(BATCH_SIZE)                              // Collect entities into batches of size BATCH_SIZE
+                        .flatMap(batch -> sut.processBatchAsync(batch), PARALLELISM)// Process each batch asynchronously
+                        .doOnComplete(() -> log.info("Processing complete, fetch size metrics {}", producer.lastMetrics()))
+                        .doOnError(e -> log.error("Error during processing", e)))
+                .verifyComplete();
+    }
+
+    @Test
+    void demand_driven_cursor_examples() {
+        StepVerifier.create(new DemandDrivenEntityProducer(sessionFactory, BATCH_SIZE).publish()
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .buffer(BATCH_SIZE)                              // Collect entities into batches of size BATCH_SIZE
+                        .flatMap(batch -> sut.processBatchAsync(batch), PARALLELISM)// Process each batch asynchronously
+                        .doOnComplete(() -> log.info("Processing complete"))
+                        .doOnError(e -> log.error("Error during processing", e)))
+                .verifyComplete();
+    }
+
+    @Test
+    void demand_driven_cursor_is_closed_on_cancel() {
+        int activeBefore = pool.getNumActive();
+        StepVerifier.create(new DemandDrivenEntityProducer(sessionFactory, BATCH_SIZE).publish(), 10)
+                .expectNextCount(10)
+                .then(() -> assertEquals(activeBefore + 1, pool.getNumActive())) // the cursor holds a connection
+                .thenCancel()
+                .verify();
+        assertEquals(activeBefore, pool.getNumActive());
+    }
+
+    @Test
+    void virtual_threads_processing_examples() {
+        StepVerifier.create(sut.processWithVirtualThreads(1000))
+                .verifyComplete();
+    }
+
+    @Test
+    void multi_id_lookup_keeps_the_order_of_the_ids() {
+        List<UUID> ids = new ArrayList<>(sessionFactory.fromStatelessSession(session -> session
+                .createSelectionQuery("select id from UuidV6Entity", UUID.class)
+                .setMaxResults(5000)
+                .getResultList()));
+        Collections.shuffle(ids);
+        ids.add(UUID.randomUUID()); // not found, skipped
+        ids.add(ids.getFirst());    // repeated
+        List<UUID> expected = new ArrayList<>(ids);
+        expected.remove(expected.size() - 2);
+
+        EntityMultiLoader loader = new EntityMultiLoader(sessionFactory, 1000, PARALLELISM);
+        assertEquals(expected, loader.findAll(ids).stream().map(UuidV6Entity::getId).toList());
+        StepVerifier.create(Flux.fromIterable(ids)
+                        .transform(loader.lookup())
+                        .map(UuidV6Entity::getId))
+                .expectNextSequence(expected)
+                .verifyComplete();
+    }
 }
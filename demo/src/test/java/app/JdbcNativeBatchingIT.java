@@ -1,12 +1,19 @@
 package app;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
 import app.config.AppConfig;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 class JdbcNativeBatchingIT {
 	private static NativeJdbcBatchingExample sut;
 
@@ -20,4 +27,24 @@ class JdbcNativeBatchingIT {
 	void run_test() {
 		sut.run();
 	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 4})
+	void pipelined_batches(int inFlight) throws SQLException {
+		try (Connection connection = NativeJdbcBatchingExample.openConnection()) {
+			NativeJdbcBatchingExample.cleanUpTable(connection);
+		}
+		assertEquals(100_000, NativeJdbcBatchingExample.executePipelined(100_000, 50, inFlight));
+	}
+
+	@Test
+	void chunked_purge() throws SQLException {
+		try (Connection connection = NativeJdbcBatchingExample.openConnection()) {
+			NativeJdbcBatchingExample.cleanUpTable(connection);
+			NativeJdbcBatchingExample.executePipelined(10_000, 500, 2);
+			assertEquals(5_000, NativeJdbcBatchingExample.purgeOrders(connection, "id % 2 = 0", 1_000));
+			assertEquals(0, NativeJdbcBatchingExample.purgeOrders(connection, "id % 2 = 0", 1_000));
+			assertEquals(5_000, NativeJdbcBatchingExample.deleteOrders(connection, "true"));
+		}
+	}
 }
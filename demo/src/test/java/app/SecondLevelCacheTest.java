@@ -0,0 +1,54 @@
+package app;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.CacheMode;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import app.cache.ChronicleRegionFactory;
+import app.cache.RegionMetrics;
+import app.config.AppConfig;
+import app.entity.hibernate.identifier.assigned.UuidV6Entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SecondLevelCacheTest {
+
+	private static AnnotationConfigApplicationContext context;
+	private static SecondLevelCacheExample sut;
+	private static ChronicleRegionFactory regionFactory;
+
+	@BeforeAll
+	static void setUpBeforeClass() {
+		System.setProperty("app.hibernate.cache", "true");
+		context = new AnnotationConfigApplicationContext(AppConfig.class);
+		sut = context.getBean(SecondLevelCacheExample.class);
+		regionFactory = ChronicleRegionFactory.of(context.getBean(SessionFactory.class));
+	}
+
+	@AfterAll
+	static void tearDownAfterClass() {
+		context.close();
+		System.clearProperty("app.hibernate.cache");
+	}
+
+	@Test
+	void repeated_lookups_are_served_off_heap() {
+		List<UUID> ids = sut.createEntities(10_000);
+		regionFactory.resetMetrics();
+
+		assertEquals(10_000, sut.findAll(ids, CacheMode.NORMAL));
+		assertEquals(10_000, sut.findAll(ids, CacheMode.NORMAL));
+		assertEquals(10_000, sut.findAll(ids, CacheMode.IGNORE));
+
+		RegionMetrics.Snapshot metrics = regionFactory.metrics().get(UuidV6Entity.class.getName());
+		assertEquals(10_000, metrics.misses());
+		assertEquals(10_000, metrics.puts());
+		assertEquals(10_000, metrics.hits());
+	}
+}
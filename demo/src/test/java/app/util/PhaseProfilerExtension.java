@@ -0,0 +1,98 @@
+package app.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Profiles every test method, each parameter set of a parameterized test separately, with {@link PhaseProfiler} and
+ * writes the comparison to {@code target/phase-profiles/<test class>.csv} and {@code .json} after the last test.
+ */
+@Slf4j
+public class PhaseProfilerExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback, AfterAllCallback {
+
+	private static final Path REPORT_DIRECTORY = Path.of("target", "phase-profiles");
+	private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(PhaseProfilerExtension.class);
+	private static final String ROWS = "rows";
+
+	private record Row(String testClass, String test, String parameters, PhaseProfiler.Usage usage) {
+	}
+
+	@Override
+	public void beforeTestExecution(ExtensionContext context) {
+		context.getStore(NAMESPACE).put(context.getUniqueId(), PhaseProfiler.sample());
+	}
+
+	@Override
+	public void afterTestExecution(ExtensionContext context) {
+		PhaseProfiler.Sample before = context.getStore(NAMESPACE).remove(context.getUniqueId(), PhaseProfiler.Sample.class);
+		if (before == null) {
+			return;
+		}
+		PhaseProfiler.Usage usage = PhaseProfiler.since(before);
+		log.info("{} {} - {}", context.getRequiredTestMethod().getName(), context.getDisplayName(), usage);
+		rows(context.getRoot()).add(new Row(context.getRequiredTestClass().getSimpleName(),
+				context.getRequiredTestMethod().getName(), context.getDisplayName(), usage));
+	}
+
+	@Override
+	public void afterAll(ExtensionContext context) throws IOException {
+		String testClass = context.getRequiredTestClass().getSimpleName();
+		List<Row> rows = rows(context.getRoot()).stream()
+				.filter(row -> row.testClass().equals(testClass))
+				.toList();
+		if (rows.isEmpty()) {
+			return;
+		}
+		Files.createDirectories(REPORT_DIRECTORY);
+		Path csv = REPORT_DIRECTORY.resolve(testClass + ".csv");
+		Files.writeString(csv, rows.stream().map(PhaseProfilerExtension::csv).collect(Collectors.joining("\n",
+				"test,parameters,wall_ms,allocated_bytes,thread_allocated_bytes,gc_count,gc_ms,cpu_ms,peak_rss_bytes\n", "\n")));
+		Files.writeString(REPORT_DIRECTORY.resolve(testClass + ".json"),
+				rows.stream().map(PhaseProfilerExtension::json).collect(Collectors.joining(",\n", "[\n", "\n]\n")));
+		log.info("Phase profiles of {} written to {}", testClass, csv.toAbsolutePath());
+	}
+
+	// shared by all the test classes of the run
+	@SuppressWarnings("unchecked")
+	private static List<Row> rows(ExtensionContext root) {
+		return root.getStore(NAMESPACE).getOrComputeIfAbsent(ROWS, key -> new ArrayList<Row>(), List.class);
+	}
+
+	private static String csv(Row row) {
+		PhaseProfiler.Usage usage = row.usage();
+		return String.join(",", quote(row.test()), quote(row.parameters()),
+				String.valueOf(usage.wallNanos() / 1_000_000), String.valueOf(usage.totalAllocatedBytes()),
+				String.valueOf(usage.threadAllocatedBytes()), String.valueOf(usage.gcCount()),
+				String.valueOf(usage.gcMillis()), String.valueOf(usage.cpuNanos() / 1_000_000),
+				String.valueOf(usage.peakRssBytes()));
+	}
+
+	private static String json(Row row) {
+		PhaseProfiler.Usage usage = row.usage();
+		return String.format("  {\"test\": \"%s\", \"parameters\": \"%s\", \"wallMillis\": %d, \"allocatedBytes\": %d, "
+						+ "\"threadAllocatedBytes\": %d, \"gcCount\": %d, \"gcMillis\": %d, \"cpuMillis\": %d, \"peakRssBytes\": %d}",
+				escape(row.test()), escape(row.parameters()), usage.wallNanos() / 1_000_000, usage.totalAllocatedBytes(),
+				usage.threadAllocatedBytes(), usage.gcCount(), usage.gcMillis(), usage.cpuNanos() / 1_000_000,
+				usage.peakRssBytes());
+	}
+
+	private static String quote(String value) {
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+}